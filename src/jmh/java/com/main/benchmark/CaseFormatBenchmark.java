@@ -0,0 +1,98 @@
+package com.main.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.main.ServiceApplication;
+import com.main.config.codec.CodecConfiguration;
+import com.main.models.Case;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU per case of writing and reading a page of cases in every response
+ * format, with the same mappers the application uses, and of gzipping the
+ * written page. The bytes per case of each format, plain and gzipped, are
+ * logged once per format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseFormatBenchmark {
+
+    public static final int PAGE_SIZE = CaseJsonBenchmark.PAGE_SIZE;
+
+    private static final Logger log = LoggerFactory.getLogger(CaseFormatBenchmark.class);
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private List<Case> casePage;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = mapper(format);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Case.class));
+        pageReader = objectMapper.readerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Case.class));
+
+        casePage = new ArrayList<>(PAGE_SIZE);
+        for (long i = 0; i < PAGE_SIZE; i++) {
+            casePage.add(CaseJsonBenchmark.createCase(i));
+        }
+        pageBytes = pageWriter.writeValueAsBytes(casePage);
+        log.info("{}: {} bytes per case, {} gzipped", format,
+                pageBytes.length / PAGE_SIZE, gzip(pageBytes).length / PAGE_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public byte[] serializePage() throws Exception {
+        return pageWriter.writeValueAsBytes(casePage);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public List<Case> deserializePage() throws Exception {
+        return pageReader.readValue(pageBytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public byte[] serializeAndGzipPage() throws Exception {
+        return gzip(pageWriter.writeValueAsBytes(casePage));
+    }
+
+    private static ObjectMapper mapper(String format) {
+        CodecConfiguration codecs = new CodecConfiguration();
+        return switch (format) {
+            case "json" -> new ServiceApplication().objectMapper();
+            case "cbor" -> codecs.cborHttpMessageConverter().getObjectMapper();
+            case "smile" -> codecs.smileHttpMessageConverter().getObjectMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+package com.main.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.main.ServiceApplication;
+import com.main.models.Case;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of {@link Case} with the application's own
+ * {@link ObjectMapper} bean, for a single case and for a page of cases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseJsonBenchmark {
+
+    public static final int PAGE_SIZE = 100;
+
+    private ObjectWriter caseWriter;
+    private ObjectWriter pageWriter;
+    private ObjectReader caseReader;
+    private Case caseDetails;
+    private List<Case> casePage;
+    private byte[] caseJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ServiceApplication().objectMapper();
+        caseWriter = objectMapper.writerFor(Case.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Case.class));
+        caseReader = objectMapper.readerFor(Case.class);
+
+        caseDetails = createCase(1L);
+        casePage = new ArrayList<>(PAGE_SIZE);
+        for (long i = 0; i < PAGE_SIZE; i++) {
+            casePage.add(createCase(i));
+        }
+        caseJson = caseWriter.writeValueAsBytes(caseDetails);
+    }
+
+    @Benchmark
+    public byte[] serializeCase() throws Exception {
+        return caseWriter.writeValueAsBytes(caseDetails);
+    }
+
+    @Benchmark
+    public Case deserializeCase() throws Exception {
+        return caseReader.readValue(caseJson);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public byte[] serializePage() throws Exception {
+        return pageWriter.writeValueAsBytes(casePage);
+    }
+
+    static Case createCase(Long caseId) {
+        long sequence = caseId == null ? 0 : caseId;
+        Case caseDetails = new Case(caseId, "Sample " + sequence, "Case description " + sequence,
+                "Pending", LocalDateTime.of(2030, 1, 1, 10, 0).plusMinutes(sequence));
+        caseDetails.setVersion(caseId == null ? null : 0L);
+        return caseDetails;
+    }
+}
@@ -0,0 +1,121 @@
+package com.main.benchmark;
+
+import com.main.ServiceApplication;
+import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.models.CaseQuery;
+import com.main.services.CaseBulkService;
+import com.main.services.CaseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.main.constants.CommonConstant.CASE_CACHE;
+
+/**
+ * {@link CaseService} hot paths against the whole application context on an
+ * in-memory H2 database seeded with {@code caseCount} cases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseServiceBenchmark {
+
+    @Param({"10000"})
+    public int caseCount;
+
+    private ConfigurableApplicationContext context;
+    private CaseService caseService;
+    private Cache caseCache;
+    private List<Long> caseIds;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServiceApplication.class)
+                .profiles("benchmark")
+                .run();
+        caseService = context.getBean(CaseService.class);
+        caseCache = context.getBean(CacheManager.class).getCache(CASE_CACHE);
+
+        List<Case> cases = new ArrayList<>(caseCount);
+        for (int i = 0; i < caseCount; i++) {
+            Case caseDetails = CaseJsonBenchmark.createCase(null);
+            caseDetails.setTitle("Sample " + i);
+            cases.add(caseDetails);
+        }
+        context.getBean(CaseBulkService.class).createCases(cases.iterator());
+        caseIds = cases.stream().map(Case::getCaseId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Case createCase() {
+        return caseService.createCase(CaseJsonBenchmark.createCase(null));
+    }
+
+    @Benchmark
+    public Case findCaseCached() {
+        return caseService.findCase(randomCaseId());
+    }
+
+    @Benchmark
+    public Case findCaseUncached() {
+        Long caseId = randomCaseId();
+        caseCache.evict(caseId);
+        return caseService.findCase(caseId);
+    }
+
+    /** Distinct cache misses at once, which share IN queries. */
+    @Benchmark
+    @Threads(32)
+    public Case findCaseUncachedConcurrently() {
+        return findCaseUncached();
+    }
+
+    @Benchmark
+    public Optional<Case> updateCaseStatus() {
+        return caseService.updateCaseStatus(randomCaseId(), "Pending");
+    }
+
+    @Benchmark
+    public boolean changeCaseStatus() {
+        return caseService.changeCaseStatus(randomCaseId(), "Pending", null);
+    }
+
+    @Benchmark
+    public CasePage findCasesFirstPage() {
+        return caseService.findCases(null, 50);
+    }
+
+    /** The same page asked for at once, which shares one query. */
+    @Benchmark
+    @Threads(32)
+    public CasePage findCasesFirstPageConcurrently() {
+        return findCasesFirstPage();
+    }
+
+    @Benchmark
+    public CasePage filterCasesByStatus() {
+        return caseService.filterCases(new CaseQuery("Pending", null, null, null,
+                "dueDateTime", "asc"), null, 50);
+    }
+
+    private Long randomCaseId() {
+        return caseIds.get(ThreadLocalRandom.current().nextInt(caseIds.size()));
+    }
+}
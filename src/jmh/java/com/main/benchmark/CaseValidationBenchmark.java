@@ -0,0 +1,54 @@
+package com.main.benchmark;
+
+import com.main.models.Case;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of {@link Case} as done for every create request, for a
+ * valid case and for one that fails both constraints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaseValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Case validCase;
+    private Case invalidCase;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validCase = CaseJsonBenchmark.createCase(1L);
+        invalidCase = CaseJsonBenchmark.createCase(2L);
+        invalidCase.setTitle("");
+        invalidCase.setStatus(null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Case>> validateValidCase() {
+        return validator.validate(validCase);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Case>> validateInvalidCase() {
+        return validator.validate(invalidCase);
+    }
+}
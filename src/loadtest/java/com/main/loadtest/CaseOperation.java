@@ -0,0 +1,24 @@
+package com.main.loadtest;
+
+/**
+ * Endpoints driven by the load test, the name is the key of the endpoint in
+ * the report.
+ */
+public enum CaseOperation {
+
+    CREATE("POST /case/create-case"),
+    FIND("GET /case/find-case/{caseId}"),
+    UPDATE("PATCH /case/update-case/{caseId}/{status}"),
+    LIST("GET /case/find-cases"),
+    DELETE("DELETE /case/{caseId}");
+
+    private final String endpoint;
+
+    CaseOperation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+}
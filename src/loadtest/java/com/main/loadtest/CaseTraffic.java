@@ -0,0 +1,136 @@
+package com.main.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.models.Case;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the requests of the traffic mix. Finds and updates go to the seeded
+ * cases, deletes only remove cases created during the run so the data volume
+ * stays the same; a delete with nothing to remove becomes a find.
+ */
+class CaseTraffic {
+
+    private static final String[] STATUSES = {"Pending", "In Progress", "Completed"};
+
+    private final URI baseUri;
+    private final Duration requestTimeout;
+    private final ObjectMapper objectMapper;
+    private final List<Long> seededCaseIds;
+    private final Queue<Long> createdCaseIds = new ConcurrentLinkedQueue<>();
+    private final CaseOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    CaseTraffic(URI baseUri, Duration requestTimeout, ObjectMapper objectMapper,
+                List<Long> seededCaseIds, Map<CaseOperation, Integer> mix) {
+        this.baseUri = baseUri;
+        this.requestTimeout = requestTimeout;
+        this.objectMapper = objectMapper;
+        this.seededCaseIds = seededCaseIds;
+        this.operations = mix.entrySet().stream()
+                .filter(weight -> weight.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toArray(CaseOperation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight");
+        }
+    }
+
+    CaseOperation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("weight " + pick + " outside the mix");
+    }
+
+    /** The request to send, {@code operation} tells which endpoint it really goes to. */
+    Request request(CaseOperation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case CREATE -> new Request(operation, builder("/case/create-case")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(newCaseJson(random)))
+                    .build());
+            case FIND -> new Request(operation, builder("/case/find-case/" + seededCaseId(random))
+                    .GET()
+                    .build());
+            case UPDATE -> new Request(operation, builder("/case/update-case/" + seededCaseId(random)
+                    + "/" + STATUSES[random.nextInt(STATUSES.length)].replace(" ", "%20"))
+                    .header("Prefer", "return=minimal")
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build());
+            case LIST -> new Request(operation, builder("/case/find-cases?size=50")
+                    .GET()
+                    .build());
+            case DELETE -> {
+                Long caseId = createdCaseIds.poll();
+                yield caseId == null
+                        ? request(CaseOperation.FIND)
+                        : new Request(operation, builder("/case/" + caseId).DELETE().build());
+            }
+        };
+    }
+
+    /** Keeps the id of a created case for a later delete. */
+    void completed(CaseOperation operation, HttpResponse<String> response) {
+        if (operation != CaseOperation.CREATE || response.statusCode() != 201) {
+            return;
+        }
+        try {
+            JsonNode caseId = objectMapper.readTree(response.body()).get("caseId");
+            if (caseId != null) {
+                createdCaseIds.add(caseId.asLong());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static Case newCase(int sequence) {
+        return new Case(null, "Load test case " + sequence, "Created by the load test",
+                "Pending", LocalDateTime.now().plusDays(1).plusMinutes(sequence % 10_000));
+    }
+
+    private String newCaseJson(ThreadLocalRandom random) {
+        try {
+            return objectMapper.writeValueAsString(newCase(random.nextInt(Integer.MAX_VALUE)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Long seededCaseId(ThreadLocalRandom random) {
+        return seededCaseIds.get(random.nextInt(seededCaseIds.size()));
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+    }
+
+    record Request(CaseOperation operation, HttpRequest httpRequest) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.main.loadtest;
+
+/**
+ * Which deployment the load test boots, {@code loadtest.mode}.
+ */
+public enum DeploymentMode {
+
+    /** ServiceApplication, Spring MVC on virtual threads over JPA. */
+    MVC,
+    /** ReactiveServiceApplication, WebFlux on Netty over R2DBC. */
+    REACTIVE
+}
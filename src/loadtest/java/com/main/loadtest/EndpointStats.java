@@ -0,0 +1,49 @@
+package com.main.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error count of one endpoint, safe to record from many threads.
+ * Latencies are kept in microseconds with 3 significant digits.
+ */
+class EndpointStats {
+
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, boolean success) {
+        recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    EndpointReport report(double elapsedSeconds) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        long requests = histogram.getTotalCount();
+        return new EndpointReport(
+                requests,
+                errors.sum(),
+                requests / elapsedSeconds,
+                histogram.getMean() / 1000.0,
+                millis(histogram, 50.0),
+                millis(histogram, 90.0),
+                millis(histogram, 99.0),
+                millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /** Latencies are in milliseconds. */
+    public record EndpointReport(long requests, long errors, double throughput, double meanMillis,
+                          double p50Millis, double p90Millis, double p99Millis,
+                          double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.main.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@code loadtest.*} settings, see application-loadtest.properties. Any of them
+ * can be overridden on the command line, e.g. {@code --loadtest.rate=500}.
+ */
+@Getter
+@Setter
+public class LoadTestProperties {
+
+    private DeploymentMode mode = DeploymentMode.MVC;
+    private int seedCases = 10000;
+    /** Virtual users, or the cap of requests in flight when {@code rate} is set. */
+    private int concurrency = 64;
+    /** Requests per second across all operations, 0 sends back to back. */
+    private int rate;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private String report = "target/loadtest-report.json";
+    private Map<CaseOperation, Integer> mix = new EnumMap<>(CaseOperation.class);
+}
@@ -0,0 +1,18 @@
+package com.main.loadtest;
+
+import com.main.loadtest.EndpointStats.EndpointReport;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Machine readable result of a run, written as JSON to {@code loadtest.report}.
+ * {@code throughput} is requests per second over the measured duration. The
+ * heap and thread figures are of the whole JVM, load generator included, at
+ * the end of the run.
+ */
+public record LoadTestReport(DeploymentMode mode, Instant startedAt, double durationSeconds, int concurrency,
+                             int rate, int seedCases, Map<CaseOperation, Integer> mix,
+                             long heapUsedMegabytes, int peakPlatformThreads,
+                             EndpointReport total, Map<String, EndpointReport> endpoints) {
+}
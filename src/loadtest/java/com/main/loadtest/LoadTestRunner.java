@@ -0,0 +1,225 @@
+package com.main.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.main.ServiceApplication;
+import com.main.loadtest.CaseTraffic.Request;
+import com.main.models.Case;
+import com.main.reactive.ReactiveServiceApplication;
+import com.main.reactive.services.ReactiveCaseService;
+import com.main.services.CaseBulkService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application on a random port, seeds {@code loadtest.seed-cases}
+ * cases and drives the {@code /case} endpoints with the {@code loadtest.mix}
+ * over HTTP from virtual threads. {@code loadtest.mode} picks the servlet or
+ * the reactive deployment, so both can be compared under the same load.
+ * <p>
+ * With {@code loadtest.rate} at 0 every virtual user sends its next request as
+ * soon as the previous one answers, which finds the saturation throughput.
+ * With a rate the requests are sent on a fixed schedule and the latency is
+ * measured from the time the request was due, so a stalled server shows up in
+ * the percentiles instead of silently lowering the load.
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final int SEED_CONCURRENCY = 32;
+
+    private final LoadTestProperties properties;
+    private final CaseTraffic traffic;
+    private final HttpClient httpClient;
+    private final Map<CaseOperation, EndpointStats> stats = new EnumMap<>(CaseOperation.class);
+    private final EndpointStats total = new EndpointStats();
+
+    LoadTestRunner(LoadTestProperties properties, CaseTraffic traffic, HttpClient httpClient) {
+        this.properties = properties;
+        this.traffic = traffic;
+        this.httpClient = httpClient;
+        for (CaseOperation operation : CaseOperation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = boot(modeOf(args), args);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadTestProperties properties = Binder.get(context.getEnvironment())
+                    .bindOrCreate("loadtest", LoadTestProperties.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            List<Long> seededCaseIds = seed(context, properties.getMode(), properties.getSeedCases());
+            CaseTraffic traffic = new CaseTraffic(URI.create("http://localhost:" + port),
+                    properties.getRequestTimeout(), objectMapper, seededCaseIds, properties.getMix());
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+
+            LoadTestReport report = new LoadTestRunner(properties, traffic, httpClient).run(executor);
+            File reportFile = new File(properties.getReport());
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+                    .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .writeValue(reportFile, report);
+            log.info("load test done: {} requests at {} req/s, p99 {} ms, report {}",
+                    report.total().requests(), Math.round(report.total().throughput()),
+                    report.total().p99Millis(), reportFile.getAbsolutePath());
+        }
+    }
+
+    private static DeploymentMode modeOf(String[] args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        return Binder.get(environment).bind("loadtest.mode", DeploymentMode.class).orElse(DeploymentMode.MVC);
+    }
+
+    private static ConfigurableApplicationContext boot(DeploymentMode mode, String[] args) {
+        return switch (mode) {
+            case MVC -> new SpringApplicationBuilder(ServiceApplication.class)
+                    .profiles("loadtest")
+                    .run(args);
+            case REACTIVE -> new SpringApplicationBuilder(ReactiveServiceApplication.class)
+                    .web(WebApplicationType.REACTIVE)
+                    .profiles("loadtest", "loadtest-reactive")
+                    .run(args);
+        };
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context, DeploymentMode mode, int seedCases) {
+        List<Case> cases = new ArrayList<>(seedCases);
+        for (int i = 0; i < seedCases; i++) {
+            cases.add(CaseTraffic.newCase(i));
+        }
+        switch (mode) {
+            case MVC -> context.getBean(CaseBulkService.class).createCases(cases.iterator());
+            case REACTIVE -> Flux.fromIterable(cases)
+                    .flatMap(context.getBean(ReactiveCaseService.class)::createCase, SEED_CONCURRENCY)
+                    .blockLast();
+        }
+        List<Long> caseIds = cases.stream().map(Case::getCaseId).filter(Objects::nonNull).toList();
+        if (caseIds.isEmpty()) {
+            throw new IllegalStateException("loadtest.seed-cases must create at least one case");
+        }
+        return caseIds;
+    }
+
+    LoadTestReport run(ExecutorService executor) throws InterruptedException, ExecutionException {
+        long warmupNanos = properties.getWarmup().toNanos();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + properties.getDuration().toNanos();
+        Instant startedAt = Instant.now();
+
+        if (properties.getRate() > 0) {
+            runAtRate(executor, start, measureFrom, end);
+        } else {
+            runBackToBack(executor, measureFrom, end);
+        }
+        double elapsedSeconds = (System.nanoTime() - measureFrom) / 1e9;
+
+        Map<String, EndpointStats.EndpointReport> endpoints = new LinkedHashMap<>();
+        stats.forEach((operation, endpointStats) ->
+                endpoints.put(operation.endpoint(), endpointStats.report(elapsedSeconds)));
+        return new LoadTestReport(properties.getMode(), startedAt, elapsedSeconds, properties.getConcurrency(),
+                properties.getRate(), properties.getSeedCases(), properties.getMix(),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024),
+                ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                total.report(elapsedSeconds), endpoints);
+    }
+
+    private void runBackToBack(ExecutorService executor, long measureFrom, long end)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> users = new ArrayList<>(properties.getConcurrency());
+        for (int user = 0; user < properties.getConcurrency(); user++) {
+            users.add(executor.submit(() -> {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    send(traffic.request(traffic.nextOperation()), now, measureFrom);
+                }
+            }));
+        }
+        LockSupport.parkNanos(measureFrom - System.nanoTime());
+        log.info("warmup done, measuring for {}", properties.getDuration());
+        for (Future<?> user : users) {
+            user.get();
+        }
+    }
+
+    private void runAtRate(ExecutorService executor, long start, long measureFrom, long end)
+            throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+        Semaphore inFlight = new Semaphore(properties.getConcurrency());
+        boolean measuring = false;
+        for (long due = start; due < end; due += intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && due >= measureFrom) {
+                log.info("warmup done, measuring for {}", properties.getDuration());
+                measuring = true;
+            }
+            inFlight.acquire();
+            long scheduled = due;
+            executor.submit(() -> {
+                try {
+                    send(traffic.request(traffic.nextOperation()), scheduled, measureFrom);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(properties.getConcurrency());
+    }
+
+    private void send(Request request, long scheduled, long measureFrom) {
+        boolean success;
+        try {
+            HttpResponse<String> response = httpClient.send(request.httpRequest(),
+                    HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() < 400;
+            traffic.completed(request.operation(), response);
+        } catch (IOException | RuntimeException ex) {
+            success = false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (scheduled >= measureFrom) {
+            long latency = System.nanoTime() - scheduled;
+            stats.get(request.operation()).record(latency, success);
+            total.record(latency, success);
+        }
+    }
+}
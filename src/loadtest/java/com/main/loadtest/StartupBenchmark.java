@@ -0,0 +1,317 @@
+package com.main.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.main.ServiceApplication;
+import com.main.loadtest.StartupReport.VariantReport;
+import com.main.models.Case;
+import com.main.utils.ObjectMapperUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.Driver;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.HttpStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Measures the cold start of the packaged service: every run launches a new
+ * JVM from the extracted jar against an H2 database in a file and times how
+ * long it takes until {@code /case/find-case} first answers successfully,
+ * then runs a full GC through {@code jcmd} and reads the heap left in use
+ * from the actuator. The case it finds is created with a
+ * {@code POST /case/create-case} as soon as the server accepts one.
+ * <p>
+ * The schema is created once before the first variant, so every variant
+ * starts with its own schema handling against the tables a regular
+ * deployment keeps: the default configuration updates them, faststart
+ * leaves them alone.
+ * <p>
+ * The variants with a class data sharing archive get a training run first,
+ * which stops right after the context refresh and dumps the classes it loaded.
+ * The archive is only valid for the jar and the JVM it was created with.
+ */
+@Slf4j
+public class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER = "com/main/ServiceApplication__ApplicationContextInitializer.class";
+    private static final long POLL_INTERVAL_MILLIS = 10;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final StartupBenchmarkProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Path workDir;
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private final String jcmd = Path.of(System.getProperty("java.home"), "bin", "jcmd").toString();
+
+    StartupBenchmark(StartupBenchmarkProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        this.workDir = Path.of(properties.getWorkDir()).toAbsolutePath();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        StartupBenchmarkProperties properties = Binder.get(environment)
+                .bindOrCreate("startup", StartupBenchmarkProperties.class);
+        ObjectMapper objectMapper = ObjectMapperUtil.configure(new ObjectMapper());
+
+        StartupReport report = new StartupBenchmark(properties, objectMapper).run();
+        File reportFile = new File(properties.getReport());
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .writeValue(reportFile, report);
+        report.variants().forEach((variant, result) ->
+                log.info("{}: first find-case response after {} ms, {} MB heap in use",
+                        variant, result.medianFirstResponseMillis(), result.medianHeapUsedMegabytes()));
+        log.info("startup benchmark done, report {}", reportFile.getAbsolutePath());
+    }
+
+    StartupReport run() throws Exception {
+        Instant startedAt = Instant.now();
+        Files.createDirectories(workDir);
+        Path applicationJar = extract();
+        createSchema(applicationJar);
+        boolean aotProcessed;
+        try (JarFile jarFile = new JarFile(applicationJar.toFile())) {
+            aotProcessed = jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+
+        Map<StartupVariant, VariantReport> variants = new EnumMap<>(StartupVariant.class);
+        for (StartupVariant variant : properties.getVariants()) {
+            if (variant.aot() && !aotProcessed) {
+                log.warn("skipping {}, {} was not built with -Pfaststart", variant, properties.getJar());
+                continue;
+            }
+            List<String> jvmOptions = new ArrayList<>();
+            jvmOptions.add("-Dspring.aot.enabled=" + variant.aot());
+            if (variant.cds()) {
+                Path archive = workDir.resolve(name(variant) + ".jsa");
+                train(variant, applicationJar, archive, jvmOptions);
+                jvmOptions.add("-XX:SharedArchiveFile=" + archive);
+            }
+            List<Long> firstResponseMillis = new ArrayList<>();
+            List<Long> heapUsedMegabytes = new ArrayList<>();
+            for (int run = 0; run < properties.getRuns(); run++) {
+                long[] sample = measure(variant, run, applicationJar, jvmOptions);
+                firstResponseMillis.add(sample[0]);
+                heapUsedMegabytes.add(sample[1]);
+            }
+            variants.put(variant, new VariantReport(firstResponseMillis, median(firstResponseMillis),
+                    heapUsedMegabytes, median(heapUsedMegabytes)));
+        }
+        return new StartupReport(startedAt, properties.getRuns(), variants);
+    }
+
+    /** Extracts the executable jar into a plain jar and its libraries, the layout CDS can archive. */
+    private Path extract() throws IOException, InterruptedException {
+        Path jar = Path.of(properties.getJar()).toAbsolutePath();
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException(jar + " does not exist, run mvn package first");
+        }
+        Path destination = workDir.resolve("app");
+        Process process = new ProcessBuilder(java, "-Djarmode=tools", "-jar", jar.toString(),
+                "extract", "--destination", destination.toString(), "--force")
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("extract.log").toFile())
+                .start();
+        awaitExit(process, "extracting " + jar);
+        return destination.resolve(jar.getFileName());
+    }
+
+    /** Boots the default configuration once with ddl-auto create and stops right after the context refresh. */
+    private void createSchema(Path applicationJar) throws IOException, InterruptedException {
+        List<String> jvmOptions = List.of("-Dspring.aot.enabled=false", "-Dspring.context.exit=onRefresh");
+        Process process = new ProcessBuilder(command(StartupVariant.DEFAULT, applicationJar, jvmOptions, freePort(),
+                "create"))
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("schema.log").toFile())
+                .start();
+        awaitExit(process, "creating the schema");
+    }
+
+    private void train(StartupVariant variant, Path applicationJar, Path archive, List<String> jvmOptions)
+            throws IOException, InterruptedException {
+        Files.deleteIfExists(archive);
+        List<String> trainingOptions = new ArrayList<>(jvmOptions);
+        trainingOptions.add("-XX:ArchiveClassesAtExit=" + archive);
+        trainingOptions.add("-Dspring.context.exit=onRefresh");
+        Process process = new ProcessBuilder(command(variant, applicationJar, trainingOptions, freePort()))
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve(name(variant) + "-training.log").toFile())
+                .start();
+        awaitExit(process, "training run of " + variant);
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("training run of " + variant + " wrote no archive, see "
+                    + workDir.resolve(name(variant) + "-training.log"));
+        }
+    }
+
+    /** @return the milliseconds to the first find-case response and the megabytes of heap in use */
+    private long[] measure(StartupVariant variant, int run, Path applicationJar, List<String> jvmOptions)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        URI base = URI.create("http://localhost:" + port);
+        Path logFile = workDir.resolve(name(variant) + "-" + run + ".log");
+        long launchedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command(variant, applicationJar, jvmOptions, port))
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        try {
+            long deadline = launchedAt + properties.getTimeout().toNanos();
+            Long caseId = null;
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant + " exited while starting, see " + logFile);
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException(variant + " did not answer within "
+                            + properties.getTimeout() + ", see " + logFile);
+                }
+                try {
+                    if (caseId == null) {
+                        caseId = createCase(base);
+                    }
+                    if (caseId != null && findCase(base, caseId)) {
+                        break;
+                    }
+                } catch (IOException notListeningYet) {
+                    // the server socket is not open yet
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            long firstResponseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchedAt);
+            // what is left after a full GC is what boot keeps alive, not when the last GC happened to run
+            awaitExit(new ProcessBuilder(jcmd, String.valueOf(process.pid()), "GC.run")
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start(), "GC of " + variant);
+            return new long[]{firstResponseMillis, heapUsedMegabytes(base)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(StartupVariant variant, Path applicationJar, List<String> jvmOptions, int port) {
+        // the default configuration keeps the schema up to date, the create-drop of the loadtest profile
+        // would drop it on exit; faststart runs with what its profile sets
+        return command(variant, applicationJar, jvmOptions, port, variant.faststart() ? null : "update");
+    }
+
+    private List<String> command(StartupVariant variant, Path applicationJar, List<String> jvmOptions, int port,
+                                 String ddlAuto) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(applicationJar + File.pathSeparator + jarOf(Driver.class));
+        command.add(ServiceApplication.class.getName());
+        command.add("--spring.profiles.active=" + (variant.faststart() ? "loadtest,faststart" : "loadtest"));
+        command.add("--spring.config.additional-location=" + loadtestConfigLocation());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:file:" + workDir.resolve("cases")
+                + ";MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE");
+        if (ddlAuto != null) {
+            command.add("--spring.jpa.hibernate.ddl-auto=" + ddlAuto);
+        }
+        command.add("--case.relay.file=" + workDir.resolve("case-changes.ndjson"));
+        return command;
+    }
+
+    private Long createCase(URI base) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/case/create-case"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(CaseTraffic.newCase(0))))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != HttpStatus.CREATED.value()) {
+            return null;
+        }
+        return objectMapper.readValue(response.body(), Case.class).getCaseId();
+    }
+
+    private boolean findCase(URI base, long caseId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/case/find-case/" + caseId)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == HttpStatus.OK.value();
+    }
+
+    private long heapUsedMegabytes(URI base) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                base.resolve("/actuator/metrics/jvm.memory.used?tag=area:heap")).GET().build();
+        JsonNode metric = objectMapper.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return (long) metric.path("measurements").path(0).path("value").asDouble() / BYTES_PER_MEGABYTE;
+    }
+
+    private void awaitExit(Process process, String what) throws InterruptedException {
+        if (!process.waitFor(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException(what + " did not finish within " + properties.getTimeout());
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException(what + " failed with exit code " + process.exitValue()
+                    + ", see the logs in " + workDir);
+        }
+    }
+
+    /** The directory of application-loadtest.properties, which is not packaged into the jar. */
+    private static String loadtestConfigLocation() {
+        try {
+            Path properties = Path.of(StartupBenchmark.class.getResource("/application-loadtest.properties").toURI());
+            return properties.getParent().toUri().toString();
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String jarOf(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String name(StartupVariant variant) {
+        return variant.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,26 @@
+package com.main.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code startup.*} settings of the {@link StartupBenchmark}, passed on the
+ * command line, e.g. {@code --startup.runs=10}.
+ */
+@Getter
+@Setter
+public class StartupBenchmarkProperties {
+
+    /** Measured starts per variant, after a training run for those with an archive. */
+    private int runs = 5;
+    private List<StartupVariant> variants = List.of(StartupVariant.values());
+    /** The executable jar of {@code mvn package}, built with -Pfaststart for the AOT variant. */
+    private String jar = "target/case-management-systems-backend.jar";
+    /** The jar is extracted here, next to the archives and the logs of every start. */
+    private String workDir = "target/startup";
+    private Duration timeout = Duration.ofMinutes(2);
+    private String report = "target/startup-report.json";
+}
@@ -0,0 +1,18 @@
+package com.main.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a {@link StartupBenchmark} run, written as JSON to
+ * {@code startup.report}. {@code firstResponseMillis} runs from the launch of
+ * the JVM to the first successful {@code /case/find-case} response,
+ * {@code heapUsedMegabytes} is the heap in use after a full GC right after it.
+ */
+public record StartupReport(Instant startedAt, int runs, Map<StartupVariant, VariantReport> variants) {
+
+    public record VariantReport(List<Long> firstResponseMillis, long medianFirstResponseMillis,
+                                List<Long> heapUsedMegabytes, long medianHeapUsedMegabytes) {
+    }
+}
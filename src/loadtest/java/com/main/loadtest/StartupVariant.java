@@ -0,0 +1,38 @@
+package com.main.loadtest;
+
+/**
+ * How the {@link StartupBenchmark} starts the service, {@code startup.variants}.
+ */
+public enum StartupVariant {
+
+    /** The default configuration, the baseline. */
+    DEFAULT(false, false, false),
+    /** The faststart profile: lazy documentation beans, JPA bootstrapped in the background. */
+    FASTSTART(true, false, false),
+    /** The faststart profile with the classes loaded at boot in a class data sharing archive. */
+    FASTSTART_CDS(true, true, false),
+    /** As {@link #FASTSTART_CDS} with the bean definitions generated at build time, needs a -Pfaststart jar. */
+    FASTSTART_AOT_CDS(true, true, true);
+
+    private final boolean faststart;
+    private final boolean cds;
+    private final boolean aot;
+
+    StartupVariant(boolean faststart, boolean cds, boolean aot) {
+        this.faststart = faststart;
+        this.cds = cds;
+        this.aot = aot;
+    }
+
+    public boolean faststart() {
+        return faststart;
+    }
+
+    public boolean cds() {
+        return cds;
+    }
+
+    public boolean aot() {
+        return aot;
+    }
+}
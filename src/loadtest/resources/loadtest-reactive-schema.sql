@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS case_details (
+    case_id BIGINT NOT NULL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    due_date_time TIMESTAMP(6) NOT NULL,
+    version BIGINT NOT NULL,
+    last_modified TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS case_archive (
+    case_id BIGINT NOT NULL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    due_date_time TIMESTAMP(6) NOT NULL,
+    version BIGINT NOT NULL,
+    last_modified TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
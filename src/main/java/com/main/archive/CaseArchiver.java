@@ -0,0 +1,141 @@
+package com.main.archive;
+
+import com.main.events.CaseChangedEvent;
+import com.main.models.ArchivedCase;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves cases that are done with out of {@code case_details} into
+ * {@code case_archive}, keeping the hot table and its indexes small. A case
+ * qualifies once it has one of {@code case.archive.statuses} and was due more
+ * than {@code case.archive.min-age} ago, or, whatever its status, was due
+ * more than {@code case.archive.overdue-age} ago.
+ * <p>
+ * Each run moves at most {@code case.archive.max-batches} batches of
+ * {@code case.archive.batch-size} cases per shard, each batch in its own
+ * transaction and followed by a pause, so the archiver never competes with
+ * the traffic for long. Every archived case is published as an
+ * {@code ARCHIVED} change in the transaction that moves it, so the change
+ * feed, the counts and the deadline tracking learn of it like of a delete.
+ * Archived cases are still found by id, see {@code CaseService#findCase},
+ * but status changes to them are refused.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "case.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class CaseArchiver {
+
+    private final CaseRepository caseRepository;
+    private final ArchivedCaseRepository archivedCaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseShards caseShards;
+    private final Counter archived;
+
+    @Value("${case.archive.statuses:Completed,Closed}")
+    private Set<String> statuses;
+
+    @Value("${case.archive.min-age:P90D}")
+    private Duration minAge;
+
+    @Value("${case.archive.overdue-age:P365D}")
+    private Duration overdueAge;
+
+    @Value("${case.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${case.archive.max-batches:100}")
+    private int maxBatches;
+
+    @Value("${case.archive.pause:PT0.5S}")
+    private Duration pause;
+
+    public CaseArchiver(CaseRepository caseRepository, ArchivedCaseRepository archivedCaseRepository,
+                        TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                        CaseShards caseShards, MeterRegistry meterRegistry) {
+        this.caseRepository = caseRepository;
+        this.archivedCaseRepository = archivedCaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.caseShards = caseShards;
+        this.archived = meterRegistry.counter("case.archive.archived");
+    }
+
+    @Scheduled(fixedDelayString = "${case.archive.interval:PT1H}",
+            initialDelayString = "${case.archive.interval:PT1H}")
+    public long archive() {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicLong moved = new AtomicLong();
+        caseShards.forEachShard(shard -> moved.addAndGet(archive(now)));
+        if (moved.get() > 0) {
+            log.info("archived {} cases", moved.get());
+        }
+        return moved.get();
+    }
+
+    long archive(LocalDateTime now) {
+        LocalDateTime dueBefore = now.minus(minAge);
+        LocalDateTime overdueBefore = now.minus(overdueAge);
+        long moved = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            // archived rows leave case_details, so every batch reads from the start; one query
+            // per condition, as an OR of both could only be answered by scanning the table
+            List<Long> done = caseRepository.findCaseIdsWithStatusDueBefore(statuses, dueBefore,
+                    Limit.of(batchSize));
+            List<Long> overdue = caseRepository.findCaseIdsDueBefore(overdueBefore, Limit.of(batchSize));
+            Set<Long> qualifying = new LinkedHashSet<>(done);
+            qualifying.addAll(overdue);
+            List<Long> caseIds = qualifying.stream().limit(batchSize).toList();
+            if (caseIds.isEmpty()) {
+                break;
+            }
+            Integer rows = transactionTemplate.execute(status -> {
+                // the row locks keep a status change from landing between the copy and the delete
+                caseRepository.findCaseIdsForUpdate(caseIds);
+                archivedCaseRepository.copyFromCases(caseIds, statuses, dueBefore, overdueBefore, now);
+                List<ArchivedCase> copied = archivedCaseRepository.findAllById(caseIds);
+                int deleted = caseRepository.deleteArchivedByCaseIds(caseIds);
+                copied.forEach(archivedCase -> eventPublisher.publishEvent(
+                        CaseChangedEvent.archived(archivedCase.toCase())));
+                return deleted;
+            });
+            int count = rows == null ? 0 : rows;
+            moved += count;
+            archived.increment(count);
+            boolean more = done.size() == batchSize || overdue.size() == batchSize;
+            if (!more || count == 0 || !pause()) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
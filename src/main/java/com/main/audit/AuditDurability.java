@@ -0,0 +1,23 @@
+package com.main.audit;
+
+/**
+ * When the history of a case change is written, set by
+ * {@code case.audit.durability}.
+ */
+public enum AuditDurability {
+
+    /**
+     * In the transaction of the change, as one batch right before the commit.
+     * No change is committed without its history, at the cost of an insert
+     * on every write.
+     */
+    TRANSACTIONAL,
+
+    /**
+     * After the commit, by a background writer in batches of up to
+     * {@code case.audit.batch-size} at least every
+     * {@code case.audit.flush-interval}. Adds nothing to the write, but a
+     * crash loses the history still buffered.
+     */
+    BUFFERED
+}
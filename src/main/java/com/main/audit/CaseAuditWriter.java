@@ -0,0 +1,294 @@
+package com.main.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.events.CaseChangedEvent;
+import com.main.models.Case;
+import com.main.models.CaseAuditEntry;
+import com.main.models.CaseFieldChange;
+import com.main.repository.CaseAuditRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Records the history of every {@link CaseChangedEvent} in {@code case_audit},
+ * each entry holding the fields the change set with their values before and
+ * after it.
+ * <p>
+ * With {@link AuditDurability#TRANSACTIONAL} the entries of a transaction are
+ * inserted as one batch right before its commit, like the outbox. With
+ * {@link AuditDurability#BUFFERED} they are put into a {@link RingBuffer}
+ * once the change has committed, and a writer thread inserts whatever has
+ * collected as one batch per shard when {@code case.audit.batch-size}
+ * entries are waiting or {@code case.audit.flush-interval} has passed. A
+ * failed insert is retried with exponential backoff; while the buffer is full
+ * the committing threads wait for room rather than drop history.
+ */
+@Slf4j
+@Component
+public class CaseAuditWriter {
+
+    private static final Map<String, Function<Case, Object>> AUDITED_FIELDS = auditedFields();
+    private static final long FULL_BUFFER_PAUSE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final CaseAuditRepository auditRepository;
+    private final CaseShards caseShards;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter written;
+    private final Counter failures;
+    private final Counter bufferFull;
+
+    @Value("${case.audit.durability:buffered}")
+    private AuditDurability durability;
+
+    @Value("${case.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${case.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${case.audit.flush-interval:PT0.2S}")
+    private Duration flushInterval;
+
+    @Value("${case.audit.initial-backoff:PT0.1S}")
+    private Duration initialBackoff;
+
+    @Value("${case.audit.max-backoff:PT30S}")
+    private Duration maxBackoff;
+
+    @Value("${case.audit.shutdown-timeout:PT10S}")
+    private Duration shutdownTimeout;
+
+    private RingBuffer<CaseAuditEntry> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public CaseAuditWriter(CaseAuditRepository auditRepository, CaseShards caseShards,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.auditRepository = auditRepository;
+        this.caseShards = caseShards;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.written = meterRegistry.counter("case.audit.written");
+        this.failures = meterRegistry.counter("case.audit.failures");
+        this.bufferFull = meterRegistry.counter("case.audit.buffer.full");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (durability != AuditDurability.BUFFERED) {
+            return;
+        }
+        buffer = new RingBuffer<>(bufferSize);
+        Gauge.builder("case.audit.buffered", buffer, RingBuffer::size).register(meterRegistry);
+        running = true;
+        flusher = Thread.ofVirtual().name("case-audit-writer").start(this::runFlusher);
+    }
+
+    /** Writes what is still buffered and stops the writer thread. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            running = false;
+            LockSupport.unpark(flusher);
+            flusher.join(shutdownTimeout.toMillis());
+            // still retrying a failed insert, give up on what is left
+            flusher.interrupt();
+        }
+    }
+
+    @EventListener
+    public void onCaseChanged(CaseChangedEvent event) {
+        CaseAuditEntry entry = new CaseAuditEntry(null, event.caseId(), event.type(),
+                changesJson(event), LocalDateTime.now());
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            pendingEntries().add(entry);
+        } else {
+            record(List.of(entry));
+        }
+    }
+
+    /**
+     * The fields a change set, from the case before it to the case after it.
+     * A status change records the status it replaced as the write read it,
+     * so the history never has to reconstruct it from an earlier entry.
+     */
+    static Map<String, CaseFieldChange> changes(CaseChangedEvent event) {
+        Map<String, CaseFieldChange> changes = new LinkedHashMap<>();
+        switch (event.type()) {
+            case CREATED -> AUDITED_FIELDS.forEach((field, value) ->
+                    addChange(changes, field, null, value.apply(event.current())));
+            case STATUS_CHANGED -> addChange(changes, "status",
+                    event.previous() == null ? null : event.previous().getStatus(), event.current().getStatus());
+            case DELETED -> {
+                if (event.previous() != null) {
+                    AUDITED_FIELDS.forEach((field, value) ->
+                            addChange(changes, field, value.apply(event.previous()), null));
+                }
+            }
+            // the case keeps every field in the archive
+            case ARCHIVED -> { }
+        }
+        return changes;
+    }
+
+    private static void addChange(Map<String, CaseFieldChange> changes, String field, Object from, Object to) {
+        String before = Objects.toString(from, null);
+        String after = Objects.toString(to, null);
+        if (!Objects.equals(before, after)) {
+            changes.put(field, new CaseFieldChange(before, after));
+        }
+    }
+
+    private String changesJson(CaseChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(changes(event));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CaseAuditEntry> pendingEntries() {
+        List<CaseAuditEntry> pending = (List<CaseAuditEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<CaseAuditEntry> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (durability == AuditDurability.TRANSACTIONAL) {
+                        insert(entries);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (durability == AuditDurability.BUFFERED) {
+                        enqueue(entries);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CaseAuditWriter.this);
+                }
+            });
+            pending = entries;
+        }
+        return pending;
+    }
+
+    private void record(List<CaseAuditEntry> entries) {
+        if (durability == AuditDurability.TRANSACTIONAL) {
+            insert(entries);
+        } else {
+            enqueue(entries);
+        }
+    }
+
+    private void insert(List<CaseAuditEntry> entries) {
+        auditRepository.insertAll(entries);
+        written.increment(entries.size());
+    }
+
+    private void enqueue(List<CaseAuditEntry> entries) {
+        for (CaseAuditEntry entry : entries) {
+            if (!buffer.offer(entry)) {
+                bufferFull.increment();
+                do {
+                    LockSupport.unpark(flusher);
+                    LockSupport.parkNanos(FULL_BUFFER_PAUSE_NANOS);
+                } while (!buffer.offer(entry));
+            }
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void runFlusher() {
+        List<CaseAuditEntry> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = flushInterval.toNanos();
+        long firstEntryAt = 0;
+        while (running || buffer.size() > 0 || !batch.isEmpty()) {
+            boolean wasEmpty = batch.isEmpty();
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (wasEmpty && !batch.isEmpty()) {
+                firstEntryAt = System.nanoTime();
+            }
+            long waited = System.nanoTime() - firstEntryAt;
+            if (!batch.isEmpty() && (batch.size() >= batchSize || waited >= flushIntervalNanos || !running)) {
+                if (!flush(batch)) {
+                    return;
+                }
+                batch.clear();
+            } else {
+                LockSupport.parkNanos(batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - waited);
+            }
+        }
+    }
+
+    /** @return whether the batch was written, false when interrupted while retrying */
+    private boolean flush(List<CaseAuditEntry> batch) {
+        Map<Integer, List<CaseAuditEntry>> byShard = new TreeMap<>();
+        batch.forEach(entry -> byShard.computeIfAbsent(caseShards.shardOf(entry.getCaseId()),
+                shard -> new ArrayList<>()).add(entry));
+        for (Map.Entry<Integer, List<CaseAuditEntry>> shard : byShard.entrySet()) {
+            Duration backoff = initialBackoff;
+            while (true) {
+                try {
+                    caseShards.onShard(shard.getKey(), () -> insert(shard.getValue()));
+                    break;
+                } catch (RuntimeException ex) {
+                    failures.increment();
+                    log.warn("error: writing {} case audit entries failed, retrying in {}",
+                            shard.getValue().size(), backoff, ex);
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        log.error("error: {} case audit entries were not written", batch.size());
+                        return false;
+                    }
+                    backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0
+                            ? maxBackoff : backoff.multipliedBy(2);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Function<Case, Object>> auditedFields() {
+        Map<String, Function<Case, Object>> fields = new LinkedHashMap<>();
+        fields.put("title", Case::getTitle);
+        fields.put("description", Case::getDescription);
+        fields.put("status", Case::getStatus);
+        fields.put("dueDateTime", Case::getDueDateTime);
+        return fields;
+    }
+}
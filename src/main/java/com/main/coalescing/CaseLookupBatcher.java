@@ -0,0 +1,163 @@
+package com.main.coalescing;
+
+import com.main.config.datasource.ReadYourWritesFilter;
+import com.main.models.Case;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseRepository;
+import com.main.sharding.CaseShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Looks cases up by id, combining concurrent lookups into one
+ * {@code WHERE case_id IN (...)} query per shard.
+ * <p>
+ * Callers asking for an id already being looked up wait for that lookup.
+ * A lookup arriving while no query runs is sent at once, on its own, so a
+ * quiet service adds no latency. Lookups arriving while queries run are
+ * collected for up to {@code case.lookup.batch-window}, or until
+ * {@code case.lookup.max-batch-size} ids, and then sent together by the
+ * first of them. Cases not found are looked up in the archive in the same
+ * read only transaction.
+ * <p>
+ * The cases found fill the case cache, where they stay far longer than a
+ * replica may lag behind, so every query reads the primary (see
+ * {@link ReadYourWritesFilter#onPrimary}). A replica would cache a case the
+ * write of a client pinned to the primary already changed, and that client
+ * would read it from the cache.
+ */
+@Component
+public class CaseLookupBatcher {
+
+    private final CaseRepository caseRepository;
+    private final ArchivedCaseRepository archivedCaseRepository;
+    private final CaseShards caseShards;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${case.lookup.batch-window:PT0.002S}")
+    private Duration batchWindow;
+
+    @Value("${case.lookup.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private final Lane lane = new Lane();
+
+    public CaseLookupBatcher(CaseRepository caseRepository, ArchivedCaseRepository archivedCaseRepository,
+                             CaseShards caseShards, TransactionTemplate transactionTemplate) {
+        this.caseRepository = caseRepository;
+        this.archivedCaseRepository = archivedCaseRepository;
+        this.caseShards = caseShards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<Case> find(long caseId) {
+        CompletableFuture<Optional<Case>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Case>> running = lane.inFlight.putIfAbsent(caseId, mine);
+        if (running != null) {
+            return SingleFlight.await(running);
+        }
+        List<Long> batch = collect(lane, caseId);
+        if (batch != null) {
+            send(lane, batch);
+        }
+        return SingleFlight.await(mine);
+    }
+
+    /** Adds the id to the batch being collected, or starts one and returns it once it is due. */
+    private List<Long> collect(Lane lane, long caseId) {
+        lane.lock.lock();
+        try {
+            if (lane.collecting != null) {
+                lane.collecting.add(caseId);
+                if (lane.collecting.size() >= maxBatchSize) {
+                    lane.batchFull.signal();
+                }
+                return null;
+            }
+            List<Long> batch = new ArrayList<>();
+            batch.add(caseId);
+            lane.collecting = batch;
+            long nanos = lane.running == 0 ? 0 : batchWindow.toNanos();
+            while (batch.size() < maxBatchSize && nanos > 0) {
+                nanos = lane.batchFull.awaitNanos(nanos);
+            }
+            lane.collecting = null;
+            lane.running++;
+            return batch;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // send what was collected, the ids of the other callers are in it
+            List<Long> batch = lane.collecting;
+            lane.collecting = null;
+            lane.running++;
+            return batch;
+        } finally {
+            lane.lock.unlock();
+        }
+    }
+
+    private void send(Lane lane, List<Long> batch) {
+        try {
+            Map<Integer, List<Long>> idsByShard = batch.stream()
+                    .collect(Collectors.groupingBy(caseShards::shardOf));
+            Map<Long, Case> found = new HashMap<>();
+            caseShards.scatter(shard -> {
+                List<Long> ids = idsByShard.get(shard);
+                return ids == null ? List.<Case>of()
+                        : ReadYourWritesFilter.onPrimary(() -> readOnlyTransaction.execute(status -> load(ids)));
+            }).forEach(cases -> cases.forEach(caseDetails -> found.put(caseDetails.getCaseId(), caseDetails)));
+            for (Long caseId : batch) {
+                lane.inFlight.remove(caseId).complete(Optional.ofNullable(found.get(caseId)));
+            }
+        } catch (RuntimeException | Error ex) {
+            for (Long caseId : batch) {
+                lane.inFlight.remove(caseId).completeExceptionally(ex);
+            }
+        } finally {
+            lane.lock.lock();
+            try {
+                lane.running--;
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+    }
+
+    private List<Case> load(List<Long> caseIds) {
+        List<Case> cases = new ArrayList<>(caseRepository.findAllById(caseIds));
+        if (cases.size() < caseIds.size()) {
+            Set<Long> missing = new LinkedHashSet<>(caseIds);
+            cases.forEach(caseDetails -> missing.remove(caseDetails.getCaseId()));
+            archivedCaseRepository.findAllById(missing).forEach(archived -> cases.add(archived.toCase()));
+        }
+        return cases;
+    }
+
+    /** The lookups waiting for or in a query. */
+    private static final class Lane {
+
+        private final Map<Long, CompletableFuture<Optional<Case>>> inFlight = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition batchFull = lock.newCondition();
+        // guarded by lock: the ids waiting for the next query, null when none is collected
+        private List<Long> collecting;
+        // guarded by lock: the queries running
+        private int running;
+    }
+}
@@ -0,0 +1,16 @@
+package com.main.config.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Caches are defined by {@code spring.cache.*}. The caching advice is ordered
+ * outside the transaction advice, so puts and evictions only happen once the
+ * transaction has committed and a rolled back write never reaches the cache.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfiguration {
+
+}
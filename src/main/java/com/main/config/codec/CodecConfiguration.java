@@ -0,0 +1,49 @@
+package com.main.config.codec;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.main.utils.ObjectMapperUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Binary alternatives to JSON for clients that send
+ * {@code Accept: application/cbor} or {@code application/x-jackson-smile}.
+ * Both carry the same fields as JSON without quoting or number formatting,
+ * and Smile writes a repeated field name or short value, such as a status,
+ * as a back reference. Responses that can come in more than one format
+ * carry {@code Vary: Accept}.
+ */
+@Configuration
+public class CodecConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(ObjectMapperUtil.configure(new CBORMapper()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(
+                ObjectMapperUtil.configure(new SmileMapper(smileFactory)));
+    }
+
+    @Bean
+    public WebMvcConfigurer varyAcceptConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new VaryAcceptInterceptor());
+            }
+        };
+    }
+}
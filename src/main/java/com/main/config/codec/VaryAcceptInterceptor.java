@@ -0,0 +1,28 @@
+package com.main.config.codec;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collection;
+
+/**
+ * Adds {@code Vary: Accept} to the responses of endpoints that produce more
+ * than one format. Their entity tags stand for the case or list, not for its
+ * encoding, so without it a cache could answer a CBOR request with the JSON
+ * it stored under the same URL, or a 304 for it. The header is set before
+ * the handler runs, so it is also on 304 and error responses.
+ */
+public class VaryAcceptInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE) instanceof Collection<?> produces
+                && produces.size() > 1) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return true;
+    }
+}
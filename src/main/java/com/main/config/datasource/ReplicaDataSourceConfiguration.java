@@ -0,0 +1,76 @@
+package com.main.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read only transactions to the replicas in {@code case.replicas.nodes}
+ * and everything else to the primary of {@code spring.datasource.*}.
+ * <p>
+ * The transaction manager marks the connection of a
+ * {@code @Transactional(readOnly = true)} method read only before its first
+ * statement. The {@link LazyConnectionDataSourceProxy} only fetches the
+ * physical connection at that first statement, and takes it from the
+ * {@link ReplicaRoutingDataSource} when the connection is read only.
+ */
+@Configuration
+@ConditionalOnExpression("${case.replicas.enabled:false} and !${case.shards.enabled:false}")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties primary,
+                                                             ReplicaProperties replicas,
+                                                             MeterRegistry meterRegistry) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        List<ReplicaProperties.Node> nodes = replicas.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            ReplicaProperties.Node node = nodes.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(StringUtils.hasText(node.getUsername()) ? node.getUsername() : primary.getUsername());
+            pool.setPassword(StringUtils.hasText(node.getPassword()) ? node.getPassword() : primary.getPassword());
+            pool.setMaximumPoolSize(replicas.getPoolSize());
+            pool.setReadOnly(true);
+            pools.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, pools, replicas, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties replicas) {
+        return new ReadYourWritesFilter(replicas.getStickyWindow());
+    }
+}
@@ -0,0 +1,38 @@
+package com.main.config.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code case.replicas.*}, the read replicas serving read only transactions.
+ * A replica without a username or password uses the one of the primary.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("case.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private List<Node> nodes = new ArrayList<>();
+    private int poolSize = 10;
+    /** Replicas further behind than this are skipped until they catch up. */
+    private Duration maxLag = Duration.ofSeconds(5);
+    /** Statement returning the replication lag in seconds in {@code lagColumn}. */
+    private String lagQuery = "SHOW REPLICA STATUS";
+    private String lagColumn = "Seconds_Behind_Source";
+    /** How long a client reads from the primary after its own write. */
+    private Duration stickyWindow = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,137 @@
+package com.main.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections of read only transactions. Replicas are used round
+ * robin; one is skipped while it is down or more than {@code maxLag} behind
+ * the primary, as last seen by {@link #checkReplicas()}. The primary serves
+ * the read when no replica is usable or when the client is pinned to the
+ * primary after its own write, see {@link ReadYourWritesFilter}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> reads = new LinkedHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.maxLag = properties.getMaxLag();
+        this.lagQuery = properties.getLagQuery();
+        this.lagColumn = properties.getLagColumn();
+        for (String target : List.of("replica", "primary_pinned", "primary_fallback")) {
+            reads.put(target, Counter.builder("case.datasource.reads").tag("target", target)
+                    .register(meterRegistry));
+        }
+        for (Replica replica : this.replicas) {
+            Gauge.builder("case.datasource.replica.lag", replica, r -> r.healthy ? r.lagSeconds : Double.NaN)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadYourWritesFilter.isPinnedToPrimary()) {
+            reads.get("primary_pinned").increment();
+            return primary.getConnection();
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy || replica.lagSeconds > maxLag.toSeconds()) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                reads.get("replica").increment();
+                return connection;
+            } catch (SQLException ex) {
+                replica.healthy = false;
+                log.warn("error: replica {} is unavailable, reading from another", replica.name, ex);
+            }
+        }
+        reads.get("primary_fallback").increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /** Refreshes the health and replication lag of every replica. */
+    @Scheduled(fixedDelayString = "${case.replicas.check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    // not replicating from anywhere, so never behind
+                    replica.lagSeconds = 0;
+                    replica.healthy = true;
+                } else {
+                    long lag = rs.getLong(lagColumn);
+                    // a null lag means replication is stopped
+                    replica.healthy = !rs.wasNull();
+                    replica.lagSeconds = lag;
+                }
+            } catch (SQLException ex) {
+                replica.healthy = false;
+                log.warn("error: health check of replica {} failed", replica.name, ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagSeconds;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.main.config.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the requests served at once by a limit that follows the observed
+ * latency, additive increase and multiplicative decrease. A request served
+ * within {@code latencyTarget} while at least half the limit was in use
+ * raises the limit by one per limit's worth of such requests; a slower or
+ * failed one multiplies it by {@code backoffRatio}, at most once per
+ * generation of requests so a single slow burst is not counted many times.
+ * <p>
+ * Bulk requests may only use {@code bulkShare} of the limit and are turned
+ * away at once when it is reached, so point reads and writes keep the rest.
+ * They take far longer than {@code latencyTarget} by design, so only point
+ * requests move the limit.
+ * Point requests wait up to {@code maxWait} for a slot in a queue of
+ * {@code maxQueue}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        POINT, BULK
+    }
+
+    private final LimitProperties properties;
+    private final long latencyTargetNanos;
+    private final long maxWaitNanos;
+    private final Counter pointRejected;
+    private final Counter bulkRejected;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    // guarded by lock
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long decreasedAt = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(LimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latencyTargetNanos = properties.getLatencyTarget().toNanos();
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+        this.limit = properties.getInitialLimit();
+        this.pointRejected = Counter.builder("case.limit.rejected").tag("priority", "point").register(meterRegistry);
+        this.bulkRejected = Counter.builder("case.limit.rejected").tag("priority", "bulk").register(meterRegistry);
+        Gauge.builder("case.limit.limit", this, AdaptiveConcurrencyLimiter::limit).register(meterRegistry);
+        Gauge.builder("case.limit.in.flight", this, AdaptiveConcurrencyLimiter::inFlight).register(meterRegistry);
+        Gauge.builder("case.limit.queued", this, AdaptiveConcurrencyLimiter::queued).register(meterRegistry);
+    }
+
+    /** A slot to serve the request in, empty when the service is saturated. */
+    public Optional<Permit> tryAcquire(Priority priority) {
+        lock.lock();
+        try {
+            if (inFlight >= capacity(priority) && !awaitCapacity(priority)) {
+                (priority == Priority.BULK ? bulkRejected : pointRejected).increment();
+                return Optional.empty();
+            }
+            inFlight++;
+            return Optional.of(new Permit(priority, System.nanoTime(), inFlight));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int capacity(Priority priority) {
+        return priority == Priority.BULK ? Math.max(1, (int) (limit * properties.getBulkShare())) : (int) limit;
+    }
+
+    private boolean awaitCapacity(Priority priority) {
+        if (priority == Priority.BULK || queued >= properties.getMaxQueue()) {
+            return false;
+        }
+        queued++;
+        try {
+            long nanos = maxWaitNanos;
+            while (inFlight >= capacity(priority)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued--;
+        }
+    }
+
+    private void release(Permit permit, boolean failed) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            inFlight--;
+            if (permit.priority == Priority.BULK) {
+                released.signalAll();
+                return;
+            }
+            if (failed || now - permit.startedAt > latencyTargetNanos) {
+                // requests admitted before the last decrease saw the old limit, they do not count again
+                if (permit.startedAt - decreasedAt > 0) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    decreasedAt = now;
+                }
+            } else if (permit.inFlightAtStart * 2 >= limit) {
+                limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit {
+
+        private final Priority priority;
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Permit(Priority priority, long startedAt, int inFlightAtStart) {
+            this.priority = priority;
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /** Frees the slot, {@code failed} when the request failed on the server side. */
+        public void release(boolean failed) {
+            if (done.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release(this, failed);
+            }
+        }
+    }
+}
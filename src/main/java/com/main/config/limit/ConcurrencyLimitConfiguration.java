@@ -0,0 +1,30 @@
+package com.main.config.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limits how many case requests are served at once. With virtual threads
+ * every request gets a thread, so without a limit a burst queues on the
+ * connection pool and slows down every request instead of turning some away.
+ */
+@Configuration
+@ConditionalOnProperty(name = "case.limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LimitProperties.class)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(LimitProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                                                         LimitProperties properties) {
+        return new ConcurrencyLimitFilter(adaptiveConcurrencyLimiter, properties);
+    }
+}
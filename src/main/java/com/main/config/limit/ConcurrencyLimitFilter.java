@@ -0,0 +1,69 @@
+package com.main.config.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.main.constants.ErrorsConstant.SERVICE_SATURATED;
+
+/**
+ * Serves requests to {@code /case/} only within the limit of the
+ * {@link AdaptiveConcurrencyLimiter} and answers 503 with Retry-After to
+ * those it has no slot for, before they reach the database.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String CASE_PATH = "/case/";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Set<String> bulkPaths;
+    private final Set<String> excludedPaths;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, LimitProperties properties) {
+        this.limiter = limiter;
+        this.bulkPaths = Set.copyOf(properties.getBulkPaths());
+        this.excludedPaths = Set.copyOf(properties.getExcludedPaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !path.startsWith(CASE_PATH) || excludedPaths.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Priority priority = bulkPaths.contains(path(request))
+                ? AdaptiveConcurrencyLimiter.Priority.BULK
+                : AdaptiveConcurrencyLimiter.Priority.POINT;
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit = limiter.tryAcquire(priority);
+        if (permit.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(SERVICE_SATURATED);
+            return;
+        }
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            permit.get().release(failed);
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,37 @@
+package com.main.config.limit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code case.limit.*}, the concurrency limit of the case API. Paths are
+ * matched exactly, without the context path.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("case.limit")
+public class LimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 50;
+    private int minLimit = 10;
+    private int maxLimit = 500;
+    /** Point requests slower than this, or failing with a server error, shrink the limit. */
+    private Duration latencyTarget = Duration.ofMillis(250);
+    /** Factor the limit is multiplied with when it shrinks. */
+    private double backoffRatio = 0.9;
+    /** Share of the limit that requests to {@code bulkPaths} may use. */
+    private double bulkShare = 0.5;
+    /** Point requests waiting for a slot, those beyond are rejected at once. */
+    private int maxQueue = 100;
+    private Duration maxWait = Duration.ofMillis(50);
+    private List<String> bulkPaths = new ArrayList<>(List.of("/case/find-all-cases",
+            "/case/bulk-create-cases", "/case/bulk-update-status", "/case/bulk-delete-cases"));
+    /** Streaming responses outlive the request thread and are not limited. */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/case/changes", "/case/stream-all-cases"));
+}
@@ -0,0 +1,59 @@
+package com.main.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every transaction of the transaction manager as {@code case.transactions},
+ * tagged with the outcome and whether it was read only. Spring Boot registers
+ * the listener on the auto-configured transaction manager.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionMetricsListener implements TransactionExecutionListener {
+
+    static final String TRANSACTIONS = "case.transactions";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TransactionExecution, Timer.Sample> running = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            running.put(transaction, Timer.start(meterRegistry));
+        } else {
+            record(Timer.start(meterRegistry), transaction, "begin_failure");
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        stop(transaction, commitFailure == null ? "commit" : "commit_failure");
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        stop(transaction, rollbackFailure == null ? "rollback" : "rollback_failure");
+    }
+
+    private void stop(TransactionExecution transaction, String outcome) {
+        Timer.Sample sample = running.remove(transaction);
+        if (sample != null) {
+            record(sample, transaction, outcome);
+        }
+    }
+
+    private void record(Timer.Sample sample, TransactionExecution transaction, String outcome) {
+        sample.stop(Timer.builder(TRANSACTIONS)
+                .tag("outcome", outcome)
+                .tag("read.only", String.valueOf(transaction.isReadOnly()))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,52 @@
+package com.main.config.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.DatabaseMetaData;
+
+/**
+ * JPA cannot declare FULLTEXT indexes, so the one behind case search is
+ * created here once the schema exists. InnoDB keeps it current on every
+ * insert, update and delete of {@code case_details}.
+ */
+@Slf4j
+@Configuration
+public class SearchIndexConfiguration {
+
+    public static final String FULLTEXT_INDEX_NAME = "ftx_case_title_description";
+
+    private static final String COUNT_FULLTEXT_INDEX = """
+            SELECT COUNT(*) FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'case_details' AND index_name = ?""";
+    private static final String CREATE_FULLTEXT_INDEX =
+            "ALTER TABLE case_details ADD FULLTEXT INDEX " + FULLTEXT_INDEX_NAME + " (title, description)";
+
+    @Bean
+    public ApplicationRunner caseSearchIndexInitializer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${case.search.create-index:true}") boolean createIndex) {
+        return args -> {
+            if (!createIndex || !isMySql(jdbcTemplate)) {
+                return;
+            }
+            Integer existing = jdbcTemplate.queryForObject(COUNT_FULLTEXT_INDEX,
+                    Integer.class, FULLTEXT_INDEX_NAME);
+            if (existing == null || existing == 0) {
+                log.info("creating full text index {} on case_details", FULLTEXT_INDEX_NAME);
+                jdbcTemplate.execute(CREATE_FULLTEXT_INDEX);
+            }
+        };
+    }
+
+    private static boolean isMySql(JdbcTemplate jdbcTemplate) throws Exception {
+        String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                DatabaseMetaData::getDatabaseProductName);
+        return "MySQL".equalsIgnoreCase(product);
+    }
+}
@@ -0,0 +1,103 @@
+package com.main.config.sharding;
+
+import com.main.sharding.CaseShards;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Partitions cases over shard 0, {@code spring.datasource.*}, and the
+ * databases in {@code case.shards.nodes}.
+ * <p>
+ * The {@link LazyConnectionDataSourceProxy} only fetches the physical
+ * connection at the first statement of a transaction, after the service
+ * bound the transaction to the shard of its case, so the
+ * {@link ShardRoutingDataSource} can pick the shard then. Everything not
+ * about a single case, the outbox, the relay checkpoint and the scheduler
+ * watermark, stays on shard 0.
+ * <p>
+ * Read replicas are not combined with shards, {@code case.replicas} is
+ * ignored while this is enabled.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "case.shards.enabled", havingValue = "true")
+public class ShardDataSourceConfiguration {
+
+    private static final String PROBE_CASE_TABLE = "SELECT 1 FROM case_details WHERE 1 = 0";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource primaryDataSource,
+                                                         DataSourceProperties primary,
+                                                         ShardProperties shards,
+                                                         @Value("${case.replicas.enabled:false}") boolean replicas) {
+        if (replicas) {
+            log.warn("case.replicas is ignored, read replicas are not supported together with shards");
+        }
+        List<DataSource> pools = new ArrayList<>();
+        pools.add(primaryDataSource);
+        List<ShardProperties.Node> nodes = shards.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            ShardProperties.Node node = nodes.get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + (i + 1));
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(StringUtils.hasText(node.getUsername()) ? node.getUsername() : primary.getUsername());
+            pool.setPassword(StringUtils.hasText(node.getPassword()) ? node.getPassword() : primary.getPassword());
+            pool.setMaximumPoolSize(shards.getPoolSize());
+            pools.add(pool);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Hibernate only manages the schema of shard 0. The others get the
+     * mapped tables at startup when they have no {@code case_details} yet.
+     */
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(ShardRoutingDataSource shardRoutingDataSource,
+                                                             CaseShards caseShards,
+                                                             EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            for (int shard = 1; shard < caseShards.count(); shard++) {
+                try {
+                    new JdbcTemplate(shardRoutingDataSource.shard(shard)).execute(PROBE_CASE_TABLE);
+                } catch (DataAccessException missing) {
+                    log.info("creating the schema on shard {}", shard);
+                    caseShards.onShard(shard, () -> entityManagerFactory.unwrap(SessionFactory.class)
+                            .getSchemaManager().exportMappedObjects(false));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.main.config.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code case.shards.*}, the databases cases are partitioned over. Shard 0
+ * is {@code spring.datasource}, the nodes are shards 1 to n. A node without
+ * a username or password uses the one of shard 0.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("case.shards")
+public class ShardProperties {
+
+    private boolean enabled;
+    private List<Node> nodes = new ArrayList<>();
+    private int poolSize = 10;
+    /** Fixed once there is data, resharding moves buckets, never changes their number. */
+    private int bucketCount = 1024;
+    /** Buckets moved off their round robin shard, bucket to shard. */
+    private Map<Integer, Integer> buckets = new HashMap<>();
+
+    public int shardCount() {
+        return enabled ? nodes.size() + 1 : 1;
+    }
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,28 @@
+package com.main.config.sharding;
+
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Case placement, used by the services whether or not sharding is enabled.
+ * Without {@code case.shards.enabled} there is a single shard and nothing
+ * is routed, see {@link ShardDataSourceConfiguration} for the data sources.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    public CaseShards caseShards(ShardProperties shards) {
+        return new CaseShards(shards.shardCount(), shards.getBucketCount(), shards.getBuckets());
+    }
+
+    @Bean
+    public CaseIdGenerator caseIdGenerator(@Value("${case.id.worker-id:#{null}}") Integer workerId) {
+        return CaseIdGenerator.forConfiguredWorker(workerId);
+    }
+}
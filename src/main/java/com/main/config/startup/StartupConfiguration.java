@@ -0,0 +1,49 @@
+package com.main.config.startup;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Creates the beans of the packages in {@code case.startup.lazy-packages}
+ * when they are first used instead of at boot, for beans not needed to
+ * serve cases such as the OpenAPI documentation. A lazy bean is still
+ * created at boot when an eagerly created bean depends on it.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfiguration {
+
+    @Bean
+    public static BeanFactoryPostProcessor nonCriticalLazyInitialization(Environment environment) {
+        List<String> lazyPackages = Binder.get(environment)
+                .bind("case.startup.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return beanFactory -> {
+            if (lazyPackages.isEmpty()) {
+                return;
+            }
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String className = declaringClassName(beanFactory, definition);
+                if (className != null && lazyPackages.stream().anyMatch(pkg -> className.startsWith(pkg + "."))) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    /** The class of the bean, or of the configuration declaring it for a {@code @Bean} method. */
+    private static String declaringClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        if (definition.getFactoryBeanName() != null && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            return beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        return definition.getBeanClassName();
+    }
+}
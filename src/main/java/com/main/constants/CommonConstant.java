@@ -7,4 +7,17 @@ public class CommonConstant {
     public static final String VALIDATION_MESSAGE_FOR_TITLE = "Title is required";
     public static final String VALIDATION_MESSAGE_FOR_STATUS = "Status is required";
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_SEARCH_OFFSET = 10_000;
+
+    public static final String CASE_CACHE = "cases";
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    public static final String SERVICE_TIMER = "case.service";
+    public static final String JDBC_REPOSITORY_TIMER = "case.repository.jdbc";
+
 }
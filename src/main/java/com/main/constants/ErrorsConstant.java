@@ -3,4 +3,19 @@ package com.main.constants;
 public class ErrorsConstant {
 
     public static final String NO_SUCH_ELEMENT_EXCEPTION = "Case not exist!";
+    public static final String CASE_VERSION_CONFLICT = "Case was modified concurrently!";
+    public static final String CASE_ARCHIVED = "Case is archived and can no longer be changed";
+    public static final String INVALID_CURSOR = "Invalid cursor!";
+    public static final String MALFORMED_BULK_ROW = "Malformed case at row ";
+    public static final String INVALID_BULK_FILTER = "Either caseIds or both status and dueBefore are required";
+    public static final String INVALID_SORT = "Cases can only be sorted by dueDateTime or caseId";
+    public static final String INVALID_DIRECTION = "Sort direction must be asc or desc";
+    public static final String EMPTY_SEARCH_TEXT = "Search text is required";
+    public static final String INVALID_PAGE_SIZE = "Page size must be between 1 and ";
+    public static final String INVALID_OFFSET = "Offset is out of range";
+    public static final String INVALID_IF_MATCH = "If-Match must carry a single entity tag or *";
+    public static final String INVALID_IDEMPOTENCY_KEY = "Idempotency-Key must have 1 to 255 characters";
+    public static final String SERVICE_SATURATED = "Too many requests in progress, retry later";
+    public static final String READ_ONLY_DEPLOYMENT = "This deployment is read only, write through the servlet deployment";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used for another request";
 }
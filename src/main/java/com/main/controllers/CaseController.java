@@ -1,18 +1,59 @@
 package com.main.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.main.exception.InvalidRequestException;
+import com.main.models.BulkCaseFilter;
+import com.main.models.BulkCreateResponse;
+import com.main.models.BulkOperationResponse;
+import com.main.models.BulkStatusUpdateRequest;
 import com.main.models.Case;
+import com.main.models.CaseHistoryPage;
+import com.main.models.CasePage;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.CaseQuery;
+import com.main.models.CaseSearchPage;
+import com.main.models.CaseStatistics;
+import com.main.models.IdempotentCase;
+import com.main.services.CaseBulkService;
+import com.main.services.CaseFeedService;
+import com.main.services.CaseHistoryService;
+import com.main.services.CaseIdempotencyService;
 import com.main.services.CaseService;
+import com.main.services.CaseStatisticsService;
+import com.main.utils.CaseChangeUtil;
+import com.main.utils.CaseETagUtil;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+
+import static com.main.constants.CommonConstant.CBOR;
+import static com.main.constants.CommonConstant.DEFAULT_PAGE_SIZE;
+import static com.main.constants.CommonConstant.NDJSON;
+import static com.main.constants.CommonConstant.SMILE;
+import static com.main.constants.ErrorsConstant.INVALID_OFFSET;
+import static com.main.constants.ErrorsConstant.MALFORMED_BULK_ROW;
 
 @RestController
 @RequestMapping(value = "/case")
@@ -20,55 +61,262 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CaseController {
 
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RETURN_MINIMAL = "return=minimal";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final CaseService caseService;
+    private final CaseBulkService caseBulkService;
+    private final CaseFeedService caseFeedService;
+    private final CaseIdempotencyService caseIdempotencyService;
+    private final CaseStatisticsService caseStatisticsService;
+    private final CaseHistoryService caseHistoryService;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "This operation is used to create case details")
+    @Operation(summary = "This operation is used to create case details",
+            description = "Send an Idempotency-Key to retry safely: every request with the key "
+                    + "gets the case the first one created")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Case created successfully"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "409", description = "A request with the key is still running"),
             @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
-    @PostMapping(value = "/create-case", produces = {"application/json"},
+    @PostMapping(value = "/create-case", produces = {"application/json", CBOR, SMILE},
             consumes = {"application/json"})
-    public ResponseEntity<Case> createCaseDetails(@Valid @RequestBody Case caseDetails) {
-        Case caseA = caseService.createCase(caseDetails);
-        return ResponseEntity.status(HttpStatus.CREATED).body(caseA);
+    public ResponseEntity<Case> createCaseDetails(@Valid @RequestBody Case caseDetails,
+                                                  @RequestHeader(value = IDEMPOTENCY_KEY_HEADER,
+                                                          required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            Case caseA = caseService.createCase(caseDetails);
+            return ResponseEntity.status(HttpStatus.CREATED).body(caseA);
+        }
+        Optional<IdempotentCase> created = caseIdempotencyService.createCase(idempotencyKey, caseDetails);
+        if (created.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (created.get().isReplayed()) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString());
+        }
+        return response.body(created.get().getCaseDetails());
+    }
+
+    @Operation(summary = "This operation is used to create many cases at once",
+            description = "Accepts a JSON array or newline delimited JSON, rows are inserted "
+                    + "in batches. Reading stops at a malformed row, which is reported as rejected, "
+                    + "and the rows before it stay created")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cases processed, see per row results"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @PostMapping(value = "/bulk-create-cases", produces = {"application/json"},
+            consumes = {"application/json", NDJSON})
+    public ResponseEntity<BulkCreateResponse> bulkCreateCases(InputStream body) throws IOException {
+        try (MappingIterator<Case> rows = objectMapper.readerFor(Case.class).readValues(body)) {
+            BulkCreateResponse response = caseBulkService.createCases(caseIterator(rows));
+            return ResponseEntity.status(HttpStatus.OK).body(response);
+        }
     }
 
-    @Operation(summary = "This operation is used to update case details")
+    @Operation(summary = "This operation is used to update case details",
+            description = "Send Prefer: return=minimal to skip reading the case back, and If-Match "
+                    + "with the ETag of the case, or version, to reject the change if the case "
+                    + "was modified meanwhile")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Case updated successfully"),
+            @ApiResponse(responseCode = "204", description = "Case updated, no content requested"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
             @ApiResponse(responseCode = "404", description = "Case not found"),
+            @ApiResponse(responseCode = "409", description = "Case version conflict, or case archived"),
+            @ApiResponse(responseCode = "412", description = "Case does not match If-Match"),
             @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
-    @PatchMapping(value = "/update-case/{caseId}/{status}", produces = {"application/json"})
+    @PatchMapping(value = "/update-case/{caseId}/{status}", produces = {"application/json", CBOR, SMILE})
     public ResponseEntity<Case> updateCaseDetails(@PathVariable Long caseId,
-                                                  @PathVariable String status) {
-        return caseService.updateCaseStatus(caseId, status)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                                                  @PathVariable String status,
+                                                  @RequestParam(required = false) Long version,
+                                                  @RequestHeader(value = PREFER_HEADER,
+                                                          required = false) String prefer,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                          required = false) String ifMatch) {
+        Long expectedVersion = version;
+        if (ifMatch != null && !CaseETagUtil.ANY.equals(ifMatch.trim())) {
+            expectedVersion = CaseETagUtil.versionOf(ifMatch);
+            if (expectedVersion == null || (version != null && !version.equals(expectedVersion))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        try {
+            return updateCaseStatus(caseId, status, expectedVersion, RETURN_MINIMAL.equalsIgnoreCase(prefer));
+        } catch (OptimisticLockingFailureException ex) {
+            if (ifMatch == null) {
+                throw ex;
+            }
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
-    @Operation(summary = "This operation is used to find a case")
+    @Operation(summary = "This operation is used to update the status of many cases",
+            description = "Cases are selected by caseIds, or by status and dueBefore when no ids are given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cases updated"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @PatchMapping(value = "/bulk-update-status", produces = {"application/json"},
+            consumes = {"application/json"})
+    public ResponseEntity<BulkOperationResponse> bulkUpdateStatus(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        BulkOperationResponse response = caseBulkService.updateCaseStatuses(
+                request, request.getNewStatus());
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    @Operation(summary = "This operation is used to find a case",
+            description = "Send If-None-Match with the ETag, or If-Modified-Since, of a case read "
+                    + "before to get 304 while it is unchanged")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the case"),
+            @ApiResponse(responseCode = "304", description = "Case not modified"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
             @ApiResponse(responseCode = "404", description = "Case not exist"),
             @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
-    @GetMapping(value = "/find-case/{caseId}", produces = {"application/json"})
+    @GetMapping(value = "/find-case/{caseId}", produces = {"application/json", CBOR, SMILE})
     public ResponseEntity<Case> findACase(@PathVariable(value = "caseId") Long caseId) {
+        // served from the case cache when warm, the 304 is then decided without the database
         Case caseA = caseService.findCase(caseId);
-        return ResponseEntity.status(HttpStatus.OK).body(caseA);
+        return CaseETagUtil.tag(ResponseEntity.status(HttpStatus.OK), caseA).body(caseA);
     }
 
-    @Operation(summary = "This operation is used to find all cases")
+    @Operation(summary = "This operation is used to find all cases", deprecated = true,
+            description = "Loads every case into memory, use find-cases or stream-all-cases instead. "
+                    + "Send If-None-Match with the ETag of a previous response to get 304 while "
+                    + "no case changed")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found all cases"),
+            @ApiResponse(responseCode = "304", description = "No case modified"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
             @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
-    @GetMapping(value = "/find-all-cases", produces = {"application/json"})
-    public ResponseEntity<List<Case>> findAllUsers() {
+    @GetMapping(value = "/find-all-cases", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<List<Case>> findAllUsers(WebRequest request) {
+        // taken before the cases are read, so a write in between only costs the client a full reply
+        Optional<String> etag = caseFeedService.latestOffsets().map(CaseETagUtil::ofOffsets);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
         List<Case> caseList = caseService.findAllCases();
-        return ResponseEntity.status(HttpStatus.OK).body(caseList);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        etag.ifPresent(response::eTag);
+        return response.body(caseList);
+    }
+
+    @Operation(summary = "This operation is used to find cases page by page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found a page of cases"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/find-cases", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<CasePage> findCases(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        CasePage casePage = caseService.findCases(cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).body(casePage);
+    }
+
+    @Operation(summary = "This operation is used to filter and sort cases page by page",
+            description = "Filters on status, a dueFrom/dueTo range and a title prefix, "
+                    + "sorted by dueDateTime or caseId")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found a page of matching cases"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/filter-cases", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<CasePage> filterCases(@ModelAttribute CaseQuery query,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        CasePage casePage = caseService.filterCases(query, cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).body(casePage);
+    }
+
+    @Operation(summary = "This operation is used to search cases by keywords",
+            description = "Full text search over title and description, best match first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found a page of matching cases"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/search-cases", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<CaseSearchPage> searchCases(@RequestParam String text,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        CaseSearchPage searchPage = caseService.searchCases(text, cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).body(searchPage);
+    }
+
+    @Operation(summary = "This operation is used to count cases by status and due date",
+            description = "Served from counters kept in memory, reconciled with the database "
+                    + "every case.statistics.reconcile-interval")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Case statistics"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/statistics", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<CaseStatistics> getStatistics() {
+        CaseStatistics statistics = caseStatisticsService.getStatistics();
+        return ResponseEntity.status(HttpStatus.OK).body(statistics);
+    }
+
+    @Operation(summary = "This operation is used to read the history of a case page by page",
+            description = "Every change of the case, oldest first, with each field it set before and after. "
+                    + "History stays after the case is deleted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found a page of changes"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/case-history/{caseId}", produces = {"application/json", CBOR, SMILE})
+    public ResponseEntity<CaseHistoryPage> findHistory(@PathVariable Long caseId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        CaseHistoryPage historyPage = caseHistoryService.findHistory(caseId, cursor, size);
+        return ResponseEntity.status(HttpStatus.OK).body(historyPage);
+    }
+
+    @Operation(summary = "This operation is used to stream all cases as a JSON array")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming all cases"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/stream-all-cases", produces = {"application/json"})
+    public ResponseEntity<StreamingResponseBody> streamAllCases() {
+        ObjectWriter caseWriter = objectMapper.writerFor(Case.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                caseService.streamAllCases(cs -> writeCase(caseWriter, generator, cs));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).body(body);
+    }
+
+    @Operation(summary = "This operation is used to follow the changes of cases",
+            description = "Streams one change per line after the given offset, resume with the offset "
+                    + "of the last line received. With follow the stream stays open for new changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes streamed"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/changes", produces = {NDJSON})
+    public ResponseEntity<StreamingResponseBody> tailChanges(@RequestParam(defaultValue = "0") long after,
+                                                             @RequestParam(defaultValue = "true") boolean follow) {
+        if (after < 0) {
+            throw new InvalidRequestException(INVALID_OFFSET);
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                caseFeedService.tailChanges(after, follow, batch -> writeChanges(generator, batch));
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @Operation(summary = "This operation is used to delete a case")
@@ -81,4 +329,77 @@ public class CaseController {
         caseService.deleteCase(caseId);
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "This operation is used to delete many cases",
+            description = "Cases are selected by caseIds, or by status and dueBefore when no ids are given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cases deleted"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @PostMapping(value = "/bulk-delete-cases", produces = {"application/json"},
+            consumes = {"application/json"})
+    public ResponseEntity<BulkOperationResponse> bulkDeleteCases(@RequestBody BulkCaseFilter filter) {
+        BulkOperationResponse response = caseBulkService.deleteCases(filter);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    private ResponseEntity<Case> updateCaseStatus(Long caseId, String status, Long expectedVersion,
+                                                  boolean minimal) {
+        if (minimal) {
+            if (!caseService.changeCaseStatus(caseId, status, expectedVersion)) {
+                return ResponseEntity.notFound().build();
+            }
+            // every write increments the version by one
+            return expectedVersion == null ? ResponseEntity.noContent().build()
+                    : ResponseEntity.noContent().eTag(CaseETagUtil.ofVersion(expectedVersion + 1)).build();
+        }
+        return caseService.updateCaseStatus(caseId, status, expectedVersion)
+                .map(caseA -> CaseETagUtil.tag(ResponseEntity.ok(), caseA).body(caseA))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private void writeChanges(JsonGenerator generator, List<CaseOutboxEntry> batch) {
+        try {
+            for (CaseOutboxEntry change : batch) {
+                CaseChangeUtil.writeLine(generator, change);
+            }
+            generator.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeCase(ObjectWriter caseWriter, JsonGenerator generator, Case caseDetails) {
+        try {
+            caseWriter.writeValue(generator, caseDetails);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Iterator<Case> caseIterator(MappingIterator<Case> rows) {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return rows.hasNextValue();
+                } catch (IOException ex) {
+                    throw new InvalidRequestException(MALFORMED_BULK_ROW + index, ex);
+                }
+            }
+
+            @Override
+            public Case next() {
+                try {
+                    return rows.nextValue();
+                } catch (IOException ex) {
+                    throw new InvalidRequestException(MALFORMED_BULK_ROW + index, ex);
+                } finally {
+                    index++;
+                }
+            }
+        };
+    }
 }
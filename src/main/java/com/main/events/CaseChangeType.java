@@ -0,0 +1,8 @@
+package com.main.events;
+
+public enum CaseChangeType {
+    CREATED,
+    STATUS_CHANGED,
+    DELETED,
+    ARCHIVED
+}
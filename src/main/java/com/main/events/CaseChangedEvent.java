@@ -0,0 +1,45 @@
+package com.main.events;
+
+import com.main.models.Case;
+
+/**
+ * Published inside the transaction of every case write. {@code current}
+ * carries the fields the write knew about: the whole case once created, the
+ * id and new status after a status change and nothing after a delete or
+ * archive. {@code previous} is the case as it was before a status change,
+ * delete or archive, read by the write itself: the status, due date and
+ * version a status change replaced, and every field of a deleted or archived
+ * case. It is {@code null} after a create and after a delete from the
+ * archive, which removes a case that no longer counts anywhere.
+ */
+public record CaseChangedEvent(CaseChangeType type, Long caseId, Case current, Case previous) {
+
+    public static CaseChangedEvent created(Case created) {
+        return new CaseChangedEvent(CaseChangeType.CREATED, created.getCaseId(), created, null);
+    }
+
+    public static CaseChangedEvent statusChanged(Case previous, String status) {
+        Long caseId = previous.getCaseId();
+        return new CaseChangedEvent(CaseChangeType.STATUS_CHANGED, caseId, statusOnly(caseId, status), previous);
+    }
+
+    public static CaseChangedEvent deleted(Long caseId) {
+        return new CaseChangedEvent(CaseChangeType.DELETED, caseId, null, null);
+    }
+
+    public static CaseChangedEvent deleted(Case previous) {
+        return new CaseChangedEvent(CaseChangeType.DELETED, previous.getCaseId(), null, previous);
+    }
+
+    /** The case left {@code case_details} for the archive, it is still found by id but no longer changes. */
+    public static CaseChangedEvent archived(Case previous) {
+        return new CaseChangedEvent(CaseChangeType.ARCHIVED, previous.getCaseId(), null, previous);
+    }
+
+    private static Case statusOnly(Long caseId, String status) {
+        Case current = new Case();
+        current.setCaseId(caseId);
+        current.setStatus(status);
+        return current;
+    }
+}
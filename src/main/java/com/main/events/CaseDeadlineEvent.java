@@ -0,0 +1,10 @@
+package com.main.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fired by the deadline scheduler once a case comes within the due soon
+ * lead time and again once it is past its due date.
+ */
+public record CaseDeadlineEvent(CaseDeadlineType type, Long caseId, LocalDateTime dueDateTime) {
+}
@@ -0,0 +1,6 @@
+package com.main.events;
+
+public enum CaseDeadlineType {
+    DUE_SOON,
+    OVERDUE
+}
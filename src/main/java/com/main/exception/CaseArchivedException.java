@@ -0,0 +1,13 @@
+package com.main.exception;
+
+/**
+ * A write to a case that was moved to the archive. Archived cases are read
+ * only, so the write is answered with 409 rather than the 404 of a case that
+ * does not exist.
+ */
+public class CaseArchivedException extends RuntimeException {
+
+    public CaseArchivedException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,7 @@ package com.main.exception;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -59,4 +60,23 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         log.error("error: {}", ex.getMessage(), ex);
         return new ResponseEntity<> (ex.getMessage(), HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(value = InvalidRequestException.class)
+    public final ResponseEntity<String> handleInvalidRequestException(InvalidRequestException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<> (ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = CaseArchivedException.class)
+    public final ResponseEntity<String> handleCaseArchivedException(CaseArchivedException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<> (ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public final ResponseEntity<String> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<> (ex.getMessage(), HttpStatus.CONFLICT);
+    }
 }
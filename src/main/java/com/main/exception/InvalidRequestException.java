@@ -0,0 +1,17 @@
+package com.main.exception;
+
+/**
+ * A request the client has to change before it can succeed, such as a bad
+ * cursor, page size or header. Answered with 400, unlike an
+ * {@link IllegalArgumentException} raised by a bug, which stays a 500.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
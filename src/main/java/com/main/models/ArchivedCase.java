@@ -0,0 +1,51 @@
+package com.main.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A case moved out of {@code case_details} by the archiver. Archived cases
+ * are only read by id, so the table carries no secondary indexes.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "case_archive")
+public class ArchivedCase {
+
+    @Id
+    private Long caseId;
+
+    @Column(nullable = false)
+    private String title;
+
+    private String description;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime dueDateTime;
+
+    @Column(nullable = false)
+    private Long version;
+
+    private LocalDateTime lastModified;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    public Case toCase() {
+        return new Case(caseId, title, description, status, dueDateTime, version, lastModified);
+    }
+}
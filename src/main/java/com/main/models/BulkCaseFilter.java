@@ -0,0 +1,24 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the cases of a bulk operation, either by an explicit id list or by
+ * every case with {@code status} that is due before {@code dueBefore}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkCaseFilter {
+
+    private List<Long> caseIds;
+    private String status;
+    private LocalDateTime dueBefore;
+}
@@ -0,0 +1,7 @@
+package com.main.models;
+
+public enum BulkCaseOutcome {
+    CREATED,
+    REJECTED,
+    FAILED
+}
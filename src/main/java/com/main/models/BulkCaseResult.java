@@ -0,0 +1,26 @@
+package com.main.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Outcome of one row of a bulk request, {@code index} being the zero based
+ * position of the row in the request body.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkCaseResult {
+
+    private int index;
+    private Long caseId;
+    private BulkCaseOutcome outcome;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,23 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkCreateResponse {
+
+    private int received;
+    private int created;
+    private int rejected;
+    private int failed;
+    private long elapsedMillis;
+    private double casesPerSecond;
+    private List<BulkCaseResult> results;
+}
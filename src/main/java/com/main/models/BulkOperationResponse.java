@@ -0,0 +1,17 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkOperationResponse {
+
+    private long affected;
+    private int chunks;
+    private long elapsedMillis;
+}
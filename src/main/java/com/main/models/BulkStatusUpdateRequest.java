@@ -0,0 +1,17 @@
+package com.main.models;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import static com.main.constants.CommonConstant.VALIDATION_MESSAGE_FOR_STATUS;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class BulkStatusUpdateRequest extends BulkCaseFilter {
+
+    @NotBlank(message = VALIDATION_MESSAGE_FOR_STATUS)
+    private String newStatus;
+}
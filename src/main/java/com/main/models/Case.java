@@ -1,11 +1,14 @@
 package com.main.models;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.main.sharding.GeneratedCaseId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -17,11 +20,14 @@ import static com.main.constants.CommonConstant.VALIDATION_MESSAGE_FOR_TITLE;
 @Getter
 @Setter
 @Entity
-@Table(name = "case_details")
+@Table(name = "case_details", indexes = {
+        @Index(name = "idx_case_status_due", columnList = "status, due_date_time"),
+        @Index(name = "idx_case_due", columnList = "due_date_time"),
+        @Index(name = "idx_case_title", columnList = "title")})
 public class Case {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedCaseId
     private Long caseId;
 
     @NotBlank(message = VALIDATION_MESSAGE_FOR_TITLE)
@@ -36,4 +42,24 @@ public class Case {
 
     @Column(nullable = false)
     private LocalDateTime dueDateTime;
+
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // null for rows written before the column existed, until their next change
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastModified;
+
+    public Case(Long caseId, String title, String description, String status,
+                LocalDateTime dueDateTime) {
+        this(caseId, title, description, status, dueDateTime, null);
+    }
+
+    public Case(Long caseId, String title, String description, String status,
+                LocalDateTime dueDateTime, Long version) {
+        this(caseId, title, description, status, dueDateTime, version, null);
+    }
 }
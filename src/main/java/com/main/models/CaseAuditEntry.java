@@ -0,0 +1,43 @@
+package com.main.models;
+
+import com.main.events.CaseChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change in the history of a case. Rows are only ever inserted;
+ * {@code changes} is the JSON of the fields the change set, each with the
+ * value before and after it.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "case_audit", indexes = {
+        @Index(name = "idx_case_audit_case", columnList = "case_id, id")})
+public class CaseAuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long caseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private CaseChangeType changeType;
+
+    @Lob
+    @Column(nullable = false)
+    private String changes;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
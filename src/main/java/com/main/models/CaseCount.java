@@ -0,0 +1,20 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/** The number of cases with one status due on one day. */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseCount {
+
+    private String status;
+    private LocalDate dueDate;
+    private Long count;
+}
@@ -0,0 +1,20 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A field of a case before and after a change, {@code null} where the case
+ * did not exist or the value was not known to the change.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseFieldChange {
+
+    private String from;
+    private String to;
+}
@@ -0,0 +1,25 @@
+package com.main.models;
+
+import com.main.events.CaseChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One change of a case as served by the history endpoint, keyed by field name.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseHistoryEntry {
+
+    private Long id;
+    private CaseChangeType changeType;
+    private Map<String, CaseFieldChange> changes;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,22 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of the history of a case, oldest change first. {@code nextCursor}
+ * is the token for the following page, or {@code null} on the last page.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseHistoryPage {
+
+    private List<CaseHistoryEntry> content;
+    private String nextCursor;
+}
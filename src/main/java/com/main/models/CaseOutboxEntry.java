@@ -0,0 +1,43 @@
+package com.main.models;
+
+import com.main.events.CaseChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One case change, written in the transaction of the change. The id is the
+ * offset consumers of the change feed resume from; it comes from the
+ * {@code CaseIdGenerator}, so offsets are time ordered across the outboxes
+ * of all shards. {@code payload} is the JSON of the fields the write knew
+ * about, null after a delete.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "case_outbox", indexes = {
+        @Index(name = "idx_case_outbox_occurred", columnList = "occurred_at")})
+public class CaseOutboxEntry {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long caseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private CaseChangeType changeType;
+
+    @Lob
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
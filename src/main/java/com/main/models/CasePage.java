@@ -0,0 +1,22 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One keyset page of cases. {@code nextCursor} is an opaque continuation
+ * token to pass back for the following page, or {@code null} on the last page.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CasePage {
+
+    private List<Case> content;
+    private String nextCursor;
+}
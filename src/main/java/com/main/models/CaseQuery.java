@@ -0,0 +1,35 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Server side filter and sort of the case list. Every criterion is optional
+ * and {@code sortBy} is either {@code dueDateTime} or {@code caseId},
+ * {@code direction} either {@code asc} or {@code desc}.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseQuery {
+
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+
+    private String titlePrefix;
+
+    private String sortBy = "dueDateTime";
+
+    private String direction = "asc";
+}
@@ -0,0 +1,22 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of search hits, best match first. {@code nextCursor} is
+ * {@code null} on the last page.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseSearchPage {
+
+    private List<CaseSearchHit> hits;
+    private String nextCursor;
+}
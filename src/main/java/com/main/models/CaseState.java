@@ -0,0 +1,26 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** The fields of a case a status change replaces, read by the change itself. */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseState {
+
+    private Long caseId;
+    private String status;
+    private LocalDateTime dueDateTime;
+    private Long version;
+
+    /** The case as far as its state tells, the previous case of a status change. */
+    public Case toCase() {
+        return new Case(caseId, null, null, status, dueDateTime, version);
+    }
+}
@@ -0,0 +1,30 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Case counts for dashboards. The due date buckets only count open cases,
+ * those whose status is not one of {@code case.deadline.closed-statuses}:
+ * {@code overdue} were due before today, {@code dueThisWeek} are due from
+ * today until Sunday. {@code reconciledAt} is when the counts were last
+ * checked against the database.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CaseStatistics {
+
+    private long total;
+    private Map<String, Long> byStatus;
+    private long overdue;
+    private long dueToday;
+    private long dueThisWeek;
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,43 @@
+package com.main.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A create sent with an {@code Idempotency-Key}. The row is inserted before
+ * the case, so its key claims the request on every instance, and reserves
+ * {@code caseId} for it: whoever completes the claim creates the case under
+ * that id, so the primary key keeps it from being created twice.
+ * {@code response}, the JSON of the created case, stays null until the claim
+ * is completed. {@code requestHash} tells a retry from another request that
+ * reuses the key.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "case_idempotency_key", indexes = {
+        @Index(name = "idx_case_idempotency_created", columnList = "created_at")})
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private Long caseId;
+
+    @Lob
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.main.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The case created for an idempotency key, {@code replayed} when an earlier
+ * request with the key created it.
+ */
+@AllArgsConstructor
+@Getter
+public class IdempotentCase {
+
+    private final Case caseDetails;
+    private final boolean replayed;
+}
@@ -0,0 +1,29 @@
+package com.main.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outbox offset up to which a relay has delivered every change, kept so the
+ * relay resumes where it stopped after a restart.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "relay_checkpoint")
+public class RelayCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastOffset;
+}
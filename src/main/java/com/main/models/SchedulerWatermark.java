@@ -0,0 +1,37 @@
+package com.main.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point in time up to which a background job has done its work, kept so the
+ * job resumes where it stopped after a restart. A job that must run on one
+ * instance at a time also leases the row: {@code owner} runs it until
+ * {@code leaseUntil}, and only renews the lease while it still holds it.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "scheduler_watermark")
+public class SchedulerWatermark {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+}
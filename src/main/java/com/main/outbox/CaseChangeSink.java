@@ -0,0 +1,21 @@
+package com.main.outbox;
+
+import com.main.models.CaseOutboxEntry;
+
+import java.util.List;
+
+/**
+ * Destination the {@link CaseOutboxRelay} delivers case changes to. Changes
+ * of the same case arrive in offset order, but a change can be delivered
+ * more than once after a failure or a restart, so receivers should skip
+ * offsets they have already seen.
+ */
+public interface CaseChangeSink {
+
+    /**
+     * Delivers {@code changes} or throws, in which case the same list is
+     * offered again after a backoff. Called from several threads at once,
+     * each with changes of a disjoint set of cases.
+     */
+    void publish(List<CaseOutboxEntry> changes) throws Exception;
+}
@@ -0,0 +1,224 @@
+package com.main.outbox;
+
+import com.main.models.CaseOutboxEntry;
+import com.main.models.RelayCheckpoint;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.RelayCheckpointRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Delivers the outboxes of all shards to the {@link CaseChangeSink} off the
+ * request path.
+ * <p>
+ * Each poll reads the next batch of settled changes (see
+ * {@code case.feed.settle-time}), merged over the shards in offset order,
+ * and hands every change to one of
+ * {@code case.relay.lanes} lanes picked by its case id. A lane is a virtual
+ * thread that publishes whatever has queued up for it as one call and
+ * retries a failed call with exponential backoff until it succeeds, so the
+ * changes of a case are delivered in order while the lanes and the next
+ * batches proceed in parallel. At most {@code case.relay.max-in-flight}
+ * changes are queued or being published at a time.
+ * <p>
+ * The checkpoint only moves past a change once it and every change before it
+ * were delivered, so after a restart the relay can send a change again but
+ * never skips one. The outbox purge keeps every change after the checkpoint.
+ * <p>
+ * The relay is off unless {@code case.relay.enabled} is set, and then needs
+ * a sink, such as {@code case.relay.sink=file}, to start.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "case.relay.enabled", havingValue = "true")
+public class CaseOutboxRelay {
+
+    public static final String CHECKPOINT_NAME = "case-outbox-relay";
+
+    private static final Comparator<CaseOutboxEntry> BY_OFFSET = Comparator.comparing(CaseOutboxEntry::getId);
+
+    private final CaseOutboxRepository outboxRepository;
+    private final RelayCheckpointRepository checkpointRepository;
+    private final CaseShards caseShards;
+    private final CaseChangeSink sink;
+
+    private final Counter published;
+    private final Counter failures;
+    private final Timer delay;
+
+    @Value("${case.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${case.relay.lanes:16}")
+    private int laneCount;
+
+    @Value("${case.relay.max-in-flight:5000}")
+    private int maxInFlight;
+
+    @Value("${case.relay.initial-backoff:PT0.1S}")
+    private Duration initialBackoff;
+
+    @Value("${case.relay.max-backoff:PT30S}")
+    private Duration maxBackoff;
+
+    @Value("${case.feed.settle-time:PT1S}")
+    private Duration settleTime;
+
+    private final ConcurrentNavigableMap<Long, LocalDateTime> inFlight = new ConcurrentSkipListMap<>();
+    private List<BlockingQueue<CaseOutboxEntry>> lanes;
+    private List<Thread> laneThreads;
+    private volatile long dispatchedUntil = -1;
+    private volatile long checkpoint = -1;
+
+    public CaseOutboxRelay(CaseOutboxRepository outboxRepository,
+                           RelayCheckpointRepository checkpointRepository, CaseShards caseShards,
+                           CaseChangeSink sink, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.caseShards = caseShards;
+        this.sink = sink;
+        this.published = meterRegistry.counter("case.relay.published");
+        this.failures = meterRegistry.counter("case.relay.failures");
+        this.delay = Timer.builder("case.relay.delay")
+                .description("Time from the change to its delivery")
+                .register(meterRegistry);
+        Gauge.builder("case.relay.in.flight", inFlight, Map::size).register(meterRegistry);
+        Gauge.builder("case.relay.lag", this, CaseOutboxRelay::lagSeconds)
+                .description("Age of the oldest change not delivered yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("case.relay.checkpoint", this, relay -> relay.checkpoint).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long lastOffset = checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(RelayCheckpoint::getLastOffset)
+                .orElse(0L);
+        lanes = new ArrayList<>(laneCount);
+        laneThreads = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<CaseOutboxEntry> lane = new LinkedBlockingQueue<>();
+            lanes.add(lane);
+            laneThreads.add(Thread.ofVirtual().name("case-relay-lane-" + i).start(() -> runLane(lane)));
+        }
+        checkpoint = lastOffset;
+        dispatchedUntil = lastOffset;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (laneThreads != null) {
+            laneThreads.forEach(Thread::interrupt);
+            saveCheckpoint();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${case.relay.poll-interval:PT0.2S}")
+    public void poll() {
+        if (dispatchedUntil < 0) {
+            return;
+        }
+        while (dispatch(LocalDateTime.now().minus(settleTime))) {
+            // a full batch was read, more changes may be waiting
+        }
+        saveCheckpoint();
+    }
+
+    /** @return whether a full batch was handed to the lanes */
+    boolean dispatch(LocalDateTime occurredUntil) {
+        int capacity = Math.min(batchSize, maxInFlight - inFlight.size());
+        if (capacity <= 0) {
+            return false;
+        }
+        long after = dispatchedUntil;
+        // what a shard did not return has a higher offset than the last change of the merged batch
+        List<CaseOutboxEntry> batch = CaseShards.mergeSorted(caseShards.scatter(shard ->
+                outboxRepository.findAfter(after, occurredUntil, capacity)), BY_OFFSET, capacity);
+        for (CaseOutboxEntry change : batch) {
+            inFlight.put(change.getId(), change.getOccurredAt());
+            lanes.get(Math.floorMod(change.getCaseId().hashCode(), laneCount)).add(change);
+            dispatchedUntil = change.getId();
+        }
+        return batch.size() == capacity;
+    }
+
+    /** Offset up to which every change has been delivered. */
+    long deliveredUntil() {
+        long until = dispatchedUntil;
+        Map.Entry<Long, LocalDateTime> oldest = inFlight.firstEntry();
+        return oldest == null ? until : Math.min(until, oldest.getKey() - 1);
+    }
+
+    /** Seconds since the oldest change that is not delivered yet occurred. */
+    double lagSeconds() {
+        Map.Entry<Long, LocalDateTime> oldest = inFlight.firstEntry();
+        return oldest == null ? 0 : Duration.between(oldest.getValue(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private void saveCheckpoint() {
+        long delivered = deliveredUntil();
+        if (delivered > checkpoint) {
+            checkpointRepository.save(new RelayCheckpoint(CHECKPOINT_NAME, delivered));
+            checkpoint = delivered;
+        }
+    }
+
+    private void runLane(BlockingQueue<CaseOutboxEntry> lane) {
+        List<CaseOutboxEntry> changes = new ArrayList<>();
+        try {
+            while (true) {
+                changes.add(lane.take());
+                lane.drainTo(changes, batchSize - 1);
+                publish(changes);
+                changes.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(List<CaseOutboxEntry> changes) throws InterruptedException {
+        Duration backoff = initialBackoff;
+        while (true) {
+            try {
+                sink.publish(changes);
+                break;
+            } catch (Exception ex) {
+                failures.increment();
+                log.warn("error: publishing {} case changes failed, retrying in {}",
+                        changes.size(), backoff, ex);
+                Thread.sleep(backoff);
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (CaseOutboxEntry change : changes) {
+            delay.record(Duration.between(change.getOccurredAt(), now));
+            inFlight.remove(change.getId());
+        }
+        published.increment(changes.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.main.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.events.CaseChangedEvent;
+import com.main.models.CaseOutboxEntry;
+import com.main.repository.CaseOutboxRepository;
+import com.main.sharding.CaseIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends every {@link CaseChangedEvent} to the outbox in the transaction of
+ * the change, so a change is in the feed exactly when it is committed. The
+ * entries of a transaction are collected and inserted as one batch right
+ * before the commit, each with an offset from the {@link CaseIdGenerator}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseOutboxWriter {
+
+    private final CaseOutboxRepository outboxRepository;
+    private final CaseIdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onCaseChanged(CaseChangedEvent event) {
+        CaseOutboxEntry entry = new CaseOutboxEntry(null, event.caseId(), event.type(),
+                payload(event), null);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            pendingEntries().add(entry);
+        } else {
+            write(List.of(entry));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CaseOutboxEntry> pendingEntries() {
+        List<CaseOutboxEntry> pending = (List<CaseOutboxEntry>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<CaseOutboxEntry> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(entries);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CaseOutboxWriter.this);
+                }
+            });
+            pending = entries;
+        }
+        return pending;
+    }
+
+    private void write(List<CaseOutboxEntry> entries) {
+        LocalDateTime occurredAt = LocalDateTime.now();
+        entries.forEach(entry -> {
+            entry.setId(idGenerator.nextId());
+            entry.setOccurredAt(occurredAt);
+        });
+        outboxRepository.insertAll(entries);
+    }
+
+    private String payload(CaseChangedEvent event) {
+        if (event.current() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.current());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.main.outbox;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.models.CaseOutboxEntry;
+import com.main.utils.CaseChangeUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends changes to {@code case.relay.file} in the NDJSON format of the
+ * change feed, a stand-in for a message broker. The file grows without
+ * bound, so it is only used when {@code case.relay.sink=file} is set.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "case.relay.sink", havingValue = "file")
+public class FileCaseChangeSink implements CaseChangeSink {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Path file;
+    private final JsonGenerator generator;
+
+    public FileCaseChangeSink(ObjectMapper objectMapper,
+                              @Value("${case.relay.file:case-changes.ndjson}") Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void publish(List<CaseOutboxEntry> changes) throws IOException {
+        lock.lock();
+        try {
+            for (CaseOutboxEntry change : changes) {
+                CaseChangeUtil.writeLine(generator, change);
+            }
+            generator.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            generator.close();
+        } catch (IOException ex) {
+            log.error("error: closing case change file {} failed", file, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
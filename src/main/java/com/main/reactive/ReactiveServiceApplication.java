@@ -0,0 +1,58 @@
+package com.main.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.sharding.CaseIdGenerator;
+import com.main.utils.ObjectMapperUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * The reactive deployment: the same case API on WebFlux and Netty, reading
+ * {@code case_details} through R2DBC instead of JPA, so no thread waits on
+ * the database. It serves the single case endpoints and the lists, and
+ * leaves bulk operations, search, the change feed and the background jobs
+ * to the servlet deployment sharing the database.
+ * <p>
+ * It is read only by default. Its writes change {@code case_details} and
+ * nothing else: no outbox row, so no change feed or relay; no audit entry;
+ * no statistics update; no deadline events for the new due dates until the
+ * scheduler's next window; and no eviction from the servlet deployment's
+ * case cache, which keeps serving the old case and ETag. Turn
+ * {@code case.reactive.writes-enabled} on only when nothing else uses the
+ * database, as the load test does. It does not route by shard at all, so
+ * it refuses to start with {@code case.shards.enabled}.
+ * <p>
+ * Run it with
+ * {@code mvn spring-boot:run -Dspring-boot.run.main-class=com.main.reactive.ReactiveServiceApplication}.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+public class ReactiveServiceApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return ObjectMapperUtil.configure(new ObjectMapper());
+    }
+
+    @Bean
+    public CaseIdGenerator caseIdGenerator(@Value("${case.id.worker-id:#{null}}") Integer workerId,
+                                           @Value("${case.shards.enabled:false}") boolean shardsEnabled) {
+        if (shardsEnabled) {
+            throw new IllegalStateException(
+                    "The reactive deployment reads a single database and cannot run with case.shards.enabled");
+        }
+        return CaseIdGenerator.forConfiguredWorker(workerId);
+    }
+}
@@ -0,0 +1,131 @@
+package com.main.reactive.controllers;
+
+import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.reactive.services.ReactiveCaseService;
+import com.main.utils.CaseETagUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.main.constants.CommonConstant.DEFAULT_PAGE_SIZE;
+import static com.main.constants.CommonConstant.NDJSON;
+
+/**
+ * The endpoints of {@code CaseController} the reactive deployment serves,
+ * under the same paths and with the same bodies.
+ */
+@RestController
+@RequestMapping(value = "/case")
+@Tag(name = "Case")
+@RequiredArgsConstructor
+public class ReactiveCaseController {
+
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private final ReactiveCaseService caseService;
+
+    @Operation(summary = "This operation is used to create case details")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Case created successfully"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @PostMapping(value = "/create-case", produces = {"application/json"},
+            consumes = {"application/json"})
+    public Mono<ResponseEntity<Case>> createCaseDetails(@Valid @RequestBody Case caseDetails) {
+        return caseService.createCase(caseDetails)
+                .map(caseA -> ResponseEntity.status(HttpStatus.CREATED).body(caseA));
+    }
+
+    @Operation(summary = "This operation is used to update case details",
+            description = "Send Prefer: return=minimal to skip reading the case back, "
+                    + "and version to reject the change if the case was modified meanwhile")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Case updated successfully"),
+            @ApiResponse(responseCode = "204", description = "Case updated, no content requested"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "404", description = "Case not found"),
+            @ApiResponse(responseCode = "409", description = "Case version conflict, or case archived"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @PatchMapping(value = "/update-case/{caseId}/{status}", produces = {"application/json"})
+    public Mono<ResponseEntity<Case>> updateCaseDetails(@PathVariable Long caseId,
+                                                        @PathVariable String status,
+                                                        @RequestParam(required = false) Long version,
+                                                        @RequestHeader(value = PREFER_HEADER,
+                                                                required = false) String prefer) {
+        if (RETURN_MINIMAL.equalsIgnoreCase(prefer)) {
+            return caseService.changeCaseStatus(caseId, status, version)
+                    .map(updated -> updated
+                            ? ResponseEntity.noContent().<Case>build()
+                            : ResponseEntity.notFound().<Case>build());
+        }
+        return caseService.updateCaseStatus(caseId, status, version)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "This operation is used to find a case",
+            description = "Send If-None-Match with the ETag, or If-Modified-Since, of a case read "
+                    + "before to get 304 while it is unchanged")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the case"),
+            @ApiResponse(responseCode = "304", description = "Case not modified"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "404", description = "Case not exist"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/find-case/{caseId}", produces = {"application/json"})
+    public Mono<ResponseEntity<Case>> findACase(@PathVariable(value = "caseId") Long caseId) {
+        return caseService.findCase(caseId)
+                .map(caseA -> CaseETagUtil.tag(ResponseEntity.ok(), caseA).body(caseA));
+    }
+
+    @Operation(summary = "This operation is used to find all cases",
+            description = "Streamed from the database as the client reads, as a JSON array "
+                    + "or one case per line for Accept: application/x-ndjson")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found all cases"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/find-all-cases", produces = {"application/json", NDJSON})
+    public Flux<Case> findAllCases() {
+        return caseService.streamAllCases();
+    }
+
+    @Operation(summary = "This operation is used to find cases page by page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found a page of cases"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/find-cases", produces = {"application/json"})
+    public Mono<CasePage> findCases(@RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return caseService.findCases(cursor, size);
+    }
+
+    @Operation(summary = "This operation is used to stream all cases as a JSON array")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streaming all cases"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @GetMapping(value = "/stream-all-cases", produces = {"application/json", NDJSON})
+    public Flux<Case> streamAllCases() {
+        return caseService.streamAllCases();
+    }
+
+    @Operation(summary = "This operation is used to delete a case")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Case deleted, no content exist"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "500", description = "Exception occurred while serving the request")})
+    @DeleteMapping(value = "/{caseId}")
+    public Mono<ResponseEntity<Void>> deleteCase(@PathVariable Long caseId) {
+        return caseService.deleteCase(caseId).thenReturn(ResponseEntity.noContent().build());
+    }
+}
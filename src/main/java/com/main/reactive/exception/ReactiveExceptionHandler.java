@@ -0,0 +1,85 @@
+package com.main.reactive.exception;
+
+import com.main.exception.CaseArchivedException;
+import com.main.exception.ExceptionResponse;
+import com.main.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The responses of {@code GlobalExceptionHandler} for the reactive deployment.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ControllerAdvice
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(value = Exception.class)
+    public final ResponseEntity<ExceptionResponse> handleAllException(Exception ex, ServerWebExchange exchange) {
+        log.error("error: {}", ex.getMessage(), ex);
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),
+                ex.getMessage(), null, description(exchange));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(value = WebExchangeBindException.class)
+    public final ResponseEntity<ExceptionResponse> handleBindException(WebExchangeBindException ex,
+                                                                       ServerWebExchange exchange) {
+        log.error("error: {}", ex.getMessage(), ex);
+        Map<String, String> errorMap = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(err -> errorMap.put(err.getField(), err.getDefaultMessage()));
+        ExceptionResponse exceptionResponse = new ExceptionResponse(new Date(),
+                null, errorMap, description(exchange));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = NoSuchElementException.class)
+    public final ResponseEntity<String> handleNoSuchElementException(NoSuchElementException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(value = InvalidRequestException.class)
+    public final ResponseEntity<String> handleInvalidRequestException(InvalidRequestException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = CaseArchivedException.class)
+    public final ResponseEntity<String> handleCaseArchivedException(CaseArchivedException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public final ResponseEntity<String> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(value = ReadOnlyDeploymentException.class)
+    public final ResponseEntity<String> handleReadOnlyDeploymentException(ReadOnlyDeploymentException ex) {
+        log.error("error: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.METHOD_NOT_ALLOWED).allow(HttpMethod.GET).body(ex.getMessage());
+    }
+
+    /** Same shape as {@code WebRequest#getDescription(false)} on the servlet side. */
+    private static String description(ServerWebExchange exchange) {
+        return "uri=" + exchange.getRequest().getPath().value();
+    }
+}
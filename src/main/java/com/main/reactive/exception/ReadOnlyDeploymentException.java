@@ -0,0 +1,14 @@
+package com.main.reactive.exception;
+
+/**
+ * A write to the reactive deployment while {@code case.reactive.writes-enabled}
+ * is off. Its writes would bypass the outbox, the audit history, the
+ * statistics and the shards, so it is answered with 405 and the write is
+ * left to the servlet deployment.
+ */
+public class ReadOnlyDeploymentException extends RuntimeException {
+
+    public ReadOnlyDeploymentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,114 @@
+package com.main.reactive.repository;
+
+import com.main.models.Case;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@code case_details} over R2DBC, with the same statements the JPA side
+ * runs so both deployments can share one database.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveCaseRepository {
+
+    private static final String CASE_COLUMNS = "case_id, title, description, status, due_date_time, version, "
+            + "last_modified";
+    private static final String INSERT_CASE = "INSERT INTO case_details (" + CASE_COLUMNS + ") "
+            + "VALUES (:caseId, :title, :description, :status, :dueDateTime, :version, :lastModified)";
+    private static final String SELECT_CASE = "SELECT " + CASE_COLUMNS + " FROM case_details WHERE case_id = :caseId";
+    private static final String SELECT_ARCHIVED_CASE = "SELECT " + CASE_COLUMNS
+            + " FROM case_archive WHERE case_id = :caseId";
+    private static final String SELECT_CASES_AFTER = "SELECT " + CASE_COLUMNS
+            + " FROM case_details WHERE case_id > :afterCaseId ORDER BY case_id LIMIT :limit";
+    private static final String SELECT_ALL_CASES = "SELECT " + CASE_COLUMNS + " FROM case_details ORDER BY case_id";
+    private static final String COUNT_CASE = "SELECT COUNT(*) FROM case_details WHERE case_id = :caseId";
+    private static final String COUNT_ARCHIVED_CASE = "SELECT COUNT(*) FROM case_archive WHERE case_id = :caseId";
+    private static final String UPDATE_STATUS = "UPDATE case_details SET status = :status, "
+            + "version = version + 1, last_modified = :lastModified WHERE case_id = :caseId";
+    private static final String UPDATE_STATUS_WITH_VERSION = UPDATE_STATUS + " AND version = :version";
+    private static final String DELETE_CASE = "DELETE FROM case_details WHERE case_id = :caseId";
+    private static final String DELETE_ARCHIVED_CASE = "DELETE FROM case_archive WHERE case_id = :caseId";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Case> insert(Case caseDetails) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_CASE)
+                .bind("caseId", caseDetails.getCaseId())
+                .bind("title", caseDetails.getTitle())
+                .bind("status", caseDetails.getStatus())
+                .bind("dueDateTime", caseDetails.getDueDateTime())
+                .bind("version", caseDetails.getVersion())
+                .bind("lastModified", caseDetails.getLastModified());
+        insert = caseDetails.getDescription() == null
+                ? insert.bindNull("description", String.class)
+                : insert.bind("description", caseDetails.getDescription());
+        return insert.then().thenReturn(caseDetails);
+    }
+
+    public Mono<Case> findById(Long caseId) {
+        return databaseClient.sql(SELECT_CASE).bind("caseId", caseId).map(ReactiveCaseRepository::mapCase).one();
+    }
+
+    public Mono<Case> findArchivedById(Long caseId) {
+        return databaseClient.sql(SELECT_ARCHIVED_CASE).bind("caseId", caseId)
+                .map(ReactiveCaseRepository::mapCase).one();
+    }
+
+    public Mono<Boolean> existsById(Long caseId) {
+        return databaseClient.sql(COUNT_CASE).bind("caseId", caseId)
+                .map(row -> row.get(0, Long.class)).one()
+                .map(count -> count > 0);
+    }
+
+    public Mono<Boolean> existsArchivedById(Long caseId) {
+        return databaseClient.sql(COUNT_ARCHIVED_CASE).bind("caseId", caseId)
+                .map(row -> row.get(0, Long.class)).one()
+                .map(count -> count > 0);
+    }
+
+    public Flux<Case> findAfter(Long afterCaseId, int limit) {
+        return databaseClient.sql(SELECT_CASES_AFTER)
+                .bind("afterCaseId", afterCaseId)
+                .bind("limit", limit)
+                .map(ReactiveCaseRepository::mapCase).all();
+    }
+
+    /** Rows are emitted as the driver reads them, as fast as the subscriber requests them. */
+    public Flux<Case> findAll() {
+        return databaseClient.sql(SELECT_ALL_CASES).map(ReactiveCaseRepository::mapCase).all();
+    }
+
+    public Mono<Long> updateStatus(Long caseId, String status, Long version, LocalDateTime modifiedAt) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient
+                .sql(version == null ? UPDATE_STATUS : UPDATE_STATUS_WITH_VERSION)
+                .bind("caseId", caseId)
+                .bind("status", status)
+                .bind("lastModified", modifiedAt);
+        if (version != null) {
+            update = update.bind("version", version);
+        }
+        return update.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long caseId) {
+        return databaseClient.sql(DELETE_CASE).bind("caseId", caseId).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteArchivedById(Long caseId) {
+        return databaseClient.sql(DELETE_ARCHIVED_CASE).bind("caseId", caseId).fetch().rowsUpdated();
+    }
+
+    private static Case mapCase(Readable row) {
+        return new Case(row.get("case_id", Long.class), row.get("title", String.class),
+                row.get("description", String.class), row.get("status", String.class),
+                row.get("due_date_time", LocalDateTime.class), row.get("version", Long.class),
+                row.get("last_modified", LocalDateTime.class));
+    }
+}
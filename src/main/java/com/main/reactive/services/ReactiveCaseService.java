@@ -0,0 +1,16 @@
+package com.main.reactive.services;
+
+import com.main.models.Case;
+import com.main.models.CasePage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCaseService {
+    Mono<Case> createCase(Case caseDetails);
+    Mono<Case> updateCaseStatus(Long caseId, String status, Long expectedVersion);
+    Mono<Boolean> changeCaseStatus(Long caseId, String status, Long expectedVersion);
+    Mono<Case> findCase(Long caseId);
+    Mono<CasePage> findCases(String cursor, int size);
+    Flux<Case> streamAllCases();
+    Mono<Void> deleteCase(Long caseId);
+}
@@ -0,0 +1,135 @@
+package com.main.reactive.services.impl;
+
+import com.main.exception.CaseArchivedException;
+import com.main.exception.InvalidRequestException;
+import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.reactive.exception.ReadOnlyDeploymentException;
+import com.main.reactive.repository.ReactiveCaseRepository;
+import com.main.reactive.services.ReactiveCaseService;
+import com.main.sharding.CaseIdGenerator;
+import com.main.utils.CursorUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.main.constants.CommonConstant.MAX_PAGE_SIZE;
+import static com.main.constants.ErrorsConstant.CASE_ARCHIVED;
+import static com.main.constants.ErrorsConstant.CASE_VERSION_CONFLICT;
+import static com.main.constants.ErrorsConstant.INVALID_PAGE_SIZE;
+import static com.main.constants.ErrorsConstant.NO_SUCH_ELEMENT_EXCEPTION;
+import static com.main.constants.ErrorsConstant.READ_ONLY_DEPLOYMENT;
+
+/**
+ * Cases over R2DBC. Writes go straight to {@code case_details} without the
+ * outbox, the audit history, the statistics or the shards, so they are
+ * refused unless {@code case.reactive.writes-enabled} says this deployment
+ * has a database of its own.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveCaseServiceImpl implements ReactiveCaseService {
+
+    private final ReactiveCaseRepository caseRepository;
+    private final CaseIdGenerator caseIdGenerator;
+
+    @Value("${case.reactive.writes-enabled:false}")
+    private boolean writesEnabled;
+
+    @Transactional
+    @Override
+    public Mono<Case> createCase(Case caseDetails) {
+        if (!writesEnabled) {
+            return readOnly();
+        }
+        caseDetails.setCaseId(caseIdGenerator.nextId());
+        caseDetails.setVersion(0L);
+        caseDetails.setLastModified(LocalDateTime.now());
+        return caseRepository.insert(caseDetails);
+    }
+
+    @Transactional
+    @Override
+    public Mono<Case> updateCaseStatus(Long caseId, String status, Long expectedVersion) {
+        return changeCaseStatus(caseId, status, expectedVersion)
+                .filter(Boolean::booleanValue)
+                .flatMap(updated -> caseRepository.findById(caseId));
+    }
+
+    @Transactional
+    @Override
+    public Mono<Boolean> changeCaseStatus(Long caseId, String status, Long expectedVersion) {
+        if (!writesEnabled) {
+            return readOnly();
+        }
+        return caseRepository.updateStatus(caseId, status, expectedVersion, LocalDateTime.now())
+                .flatMap(updated -> updated > 0 ? Mono.just(true) : notChanged(caseId, expectedVersion));
+    }
+
+    /** Why no row was updated: a stale version, an archived case or no case at all. */
+    private Mono<Boolean> notChanged(Long caseId, Long expectedVersion) {
+        Mono<Boolean> live = expectedVersion == null ? Mono.just(false) : caseRepository.existsById(caseId);
+        return live.flatMap(exists -> exists
+                ? Mono.error(new OptimisticLockingFailureException(CASE_VERSION_CONFLICT))
+                : caseRepository.existsArchivedById(caseId)
+                        .flatMap(archived -> archived
+                                ? Mono.error(new CaseArchivedException(CASE_ARCHIVED))
+                                : Mono.just(false)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<Case> findCase(Long caseId) {
+        return caseRepository.findById(caseId)
+                .switchIfEmpty(Mono.defer(() -> caseRepository.findArchivedById(caseId)))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException(NO_SUCH_ELEMENT_EXCEPTION)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Mono<CasePage> findCases(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new InvalidRequestException(INVALID_PAGE_SIZE + MAX_PAGE_SIZE));
+        }
+        return Mono.fromCallable(() -> cursor == null ? 0L : CursorUtil.decodeLong(cursor))
+                // one extra row tells whether another page exists
+                .flatMap(afterCaseId -> caseRepository.findAfter(afterCaseId, size + 1).collectList())
+                .map(cases -> toPage(cases, size));
+    }
+
+    @Override
+    public Flux<Case> streamAllCases() {
+        return caseRepository.findAll();
+    }
+
+    @Transactional
+    @Override
+    public Mono<Void> deleteCase(Long caseId) {
+        if (!writesEnabled) {
+            return readOnly();
+        }
+        return caseRepository.deleteById(caseId)
+                .flatMap(deleted -> deleted > 0 ? Mono.just(deleted) : caseRepository.deleteArchivedById(caseId))
+                .then();
+    }
+
+    private static <T> Mono<T> readOnly() {
+        return Mono.error(new ReadOnlyDeploymentException(READ_ONLY_DEPLOYMENT));
+    }
+
+    private static CasePage toPage(List<Case> cases, int size) {
+        if (cases.size() <= size) {
+            return new CasePage(cases, null);
+        }
+        List<Case> content = cases.subList(0, size);
+        return new CasePage(content, CursorUtil.encode(content.get(size - 1).getCaseId()));
+    }
+}
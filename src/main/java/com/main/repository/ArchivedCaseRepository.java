@@ -0,0 +1,32 @@
+package com.main.repository;
+
+import com.main.models.ArchivedCase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ArchivedCaseRepository extends JpaRepository<ArchivedCase, Long> {
+
+    /**
+     * Copies the cases that still qualify for the archive, checked again in
+     * case one was reopened since its id was selected.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO case_archive (case_id, title, description, status, due_date_time, version, "
+            + "last_modified, archived_at) "
+            + "SELECT case_id, title, description, status, due_date_time, version, last_modified, :archivedAt "
+            + "FROM case_details "
+            + "WHERE case_id IN (:caseIds) AND ((status IN (:statuses) AND due_date_time < :dueBefore) "
+            + "OR due_date_time < :overdueBefore)", nativeQuery = true)
+    int copyFromCases(Collection<Long> caseIds, Collection<String> statuses, LocalDateTime dueBefore,
+                      LocalDateTime overdueBefore, LocalDateTime archivedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ArchivedCase a where a.caseId = :caseId")
+    int deleteByCaseId(Long caseId);
+}
@@ -0,0 +1,50 @@
+package com.main.repository;
+
+import com.main.events.CaseChangeType;
+import com.main.models.CaseAuditEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC access to the append only {@code case_audit} table. Entries are
+ * inserted with one JDBC batch, which Hibernate cannot do for an identity id.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CaseAuditRepository {
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO case_audit (case_id, change_type, changes, changed_at)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String SELECT_BY_CASE_AFTER = """
+            SELECT id, case_id, change_type, changes, changed_at
+            FROM case_audit WHERE case_id = ? AND id > ?
+            ORDER BY id LIMIT ?""";
+
+    private static final RowMapper<CaseAuditEntry> ENTRY_ROW_MAPPER = (rs, rowNum) ->
+            new CaseAuditEntry(rs.getLong("id"), rs.getLong("case_id"),
+                    CaseChangeType.valueOf(rs.getString("change_type")), rs.getString("changes"),
+                    rs.getTimestamp("changed_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<CaseAuditEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getCaseId());
+            ps.setString(2, entry.getChangeType().name());
+            ps.setString(3, entry.getChanges());
+            ps.setTimestamp(4, Timestamp.valueOf(entry.getChangedAt()));
+        });
+    }
+
+    /** Entries of the case after {@code afterId} in the order they were written. */
+    public List<CaseAuditEntry> findByCaseIdAfter(long caseId, long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_BY_CASE_AFTER, ENTRY_ROW_MAPPER, caseId, afterId, limit);
+    }
+}
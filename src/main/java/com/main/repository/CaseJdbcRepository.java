@@ -0,0 +1,75 @@
+package com.main.repository;
+
+import com.main.models.Case;
+import com.main.models.CaseSearchHit;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.main.constants.CommonConstant.JDBC_REPOSITORY_TIMER;
+
+/**
+ * Plain JDBC access to {@code case_details} for paths where a managed
+ * persistence context would cost more than it gives, such as streaming
+ * the whole table, or that JPQL cannot express, such as full text search.
+ */
+@Repository
+@Timed(JDBC_REPOSITORY_TIMER)
+@RequiredArgsConstructor
+public class CaseJdbcRepository {
+
+    private static final String SELECT_ALL_CASES = """
+            SELECT case_id, title, description, status, due_date_time, version, last_modified
+            FROM case_details ORDER BY case_id""";
+
+    private static final String SEARCH_CASES = """
+            SELECT case_id, title, description, status, due_date_time, version, last_modified,
+                   MATCH(title, description) AGAINST (? IN NATURAL LANGUAGE MODE) AS score
+            FROM case_details
+            WHERE MATCH(title, description) AGAINST (? IN NATURAL LANGUAGE MODE)
+            ORDER BY score DESC, case_id
+            LIMIT ? OFFSET ?""";
+
+    public static final RowMapper<Case> CASE_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp dueDateTime = rs.getTimestamp("due_date_time");
+        Timestamp lastModified = rs.getTimestamp("last_modified");
+        return new Case(rs.getLong("case_id"), rs.getString("title"),
+                rs.getString("description"), rs.getString("status"),
+                dueDateTime == null ? null : dueDateTime.toLocalDateTime(),
+                rs.getLong("version"),
+                lastModified == null ? null : lastModified.toLocalDateTime());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+    @Value("${case.stream.fetch-size:-2147483648}")
+    private int streamFetchSize;
+
+    public void streamAll(Consumer<Case> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ALL_CASES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, rs -> {
+            consumer.accept(CASE_ROW_MAPPER.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    public List<CaseSearchHit> search(String text, int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_CASES,
+                (rs, rowNum) -> new CaseSearchHit(CASE_ROW_MAPPER.mapRow(rs, rowNum),
+                        rs.getDouble("score")),
+                text, text, limit, offset);
+    }
+}
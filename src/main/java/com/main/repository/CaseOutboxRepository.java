@@ -0,0 +1,69 @@
+package com.main.repository;
+
+import com.main.events.CaseChangeType;
+import com.main.models.CaseOutboxEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code case_outbox}. Entries are inserted with one JDBC batch
+ * per transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CaseOutboxRepository {
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO case_outbox (id, case_id, change_type, payload, occurred_at)
+            VALUES (?, ?, ?, ?, ?)""";
+
+    private static final String SELECT_AFTER = """
+            SELECT id, case_id, change_type, payload, occurred_at
+            FROM case_outbox WHERE id > ? AND occurred_at <= ?
+            ORDER BY id LIMIT ?""";
+
+    private static final String SELECT_LATEST = """
+            SELECT id, case_id, change_type, payload, occurred_at
+            FROM case_outbox ORDER BY id DESC LIMIT 1""";
+
+    private static final String DELETE_BEFORE = "DELETE FROM case_outbox WHERE occurred_at < ? AND id <= ?";
+
+    private static final RowMapper<CaseOutboxEntry> ENTRY_ROW_MAPPER = (rs, rowNum) ->
+            new CaseOutboxEntry(rs.getLong("id"), rs.getLong("case_id"),
+                    CaseChangeType.valueOf(rs.getString("change_type")), rs.getString("payload"),
+                    rs.getTimestamp("occurred_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<CaseOutboxEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setLong(2, entry.getCaseId());
+            ps.setString(3, entry.getChangeType().name());
+            ps.setString(4, entry.getPayload());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getOccurredAt()));
+        });
+    }
+
+    /** Entries after {@code offset} in offset order that occurred no later than {@code occurredUntil}. */
+    public List<CaseOutboxEntry> findAfter(long offset, LocalDateTime occurredUntil, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, ENTRY_ROW_MAPPER,
+                offset, Timestamp.valueOf(occurredUntil), limit);
+    }
+
+    public Optional<CaseOutboxEntry> findLatest() {
+        return jdbcTemplate.query(SELECT_LATEST, ENTRY_ROW_MAPPER).stream().findFirst();
+    }
+
+    /** Deletes the entries that occurred before {@code occurredBefore}, up to {@code maxOffset}. */
+    public int deleteOccurredBefore(LocalDateTime occurredBefore, long maxOffset) {
+        return jdbcTemplate.update(DELETE_BEFORE, Timestamp.valueOf(occurredBefore), maxOffset);
+    }
+}
@@ -1,10 +1,97 @@
 package com.main.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import com.main.models.Case;
+import com.main.models.CaseCount;
+import com.main.models.CaseState;
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface CaseRepository extends JpaRepository <Case, Long> {
+public interface CaseRepository extends JpaRepository <Case, Long>, JpaSpecificationExecutor<Case> {
+
+    List<Case> findByCaseIdGreaterThanOrderByCaseIdAsc(Long caseId, Limit limit);
+
+    @Query("select new com.main.models.CaseState(c.caseId, c.status, c.dueDateTime, c.version) "
+            + "from Case c where c.caseId = :caseId")
+    Optional<CaseState> findStateById(Long caseId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.main.models.CaseState(c.caseId, c.status, c.dueDateTime, c.version) "
+            + "from Case c where c.caseId in :caseIds")
+    List<CaseState> findStatesForUpdate(Collection<Long> caseIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Case c where c.caseId in :caseIds")
+    List<Case> findAllForUpdate(Collection<Long> caseIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Case c set c.status = :status, c.version = c.version + 1, c.lastModified = :modifiedAt "
+            + "where c.caseId = :caseId and c.version = :version")
+    int updateStatusWithVersion(Long caseId, String status, Long version, LocalDateTime modifiedAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.caseId from Case c where c.caseId in :caseIds")
+    List<Long> findCaseIdsForUpdate(Collection<Long> caseIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Case c set c.status = :status, c.version = c.version + 1, c.lastModified = :modifiedAt "
+            + "where c.caseId in :caseIds")
+    int updateStatusByCaseIds(Collection<Long> caseIds, String status, LocalDateTime modifiedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Case c where c.caseId = :caseId")
+    int deleteByCaseId(Long caseId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Case c where c.caseId = :caseId and c.version = :version")
+    int deleteByCaseIdAndVersion(Long caseId, Long version);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Case c where c.caseId in :caseIds")
+    int deleteByCaseIds(Collection<Long> caseIds);
+
+    @Query("select new com.main.models.CaseCount(c.status, cast(c.dueDateTime as LocalDate), count(c)) "
+            + "from Case c group by c.status, cast(c.dueDateTime as LocalDate)")
+    List<CaseCount> countByStatusAndDueDate();
+
+    @Query("select c.caseId from Case c where c.status = :status and c.dueDateTime < :dueBefore "
+            + "and c.caseId > :afterCaseId order by c.caseId")
+    List<Long> findCaseIdsByStatusAndDueBefore(String status, LocalDateTime dueBefore,
+                                               Long afterCaseId, Limit limit);
+
+    /** Walks {@code idx_case_status_due}, one range per status. */
+    @Query("select c.caseId from Case c where c.status in :statuses and c.dueDateTime < :dueBefore "
+            + "order by c.status, c.dueDateTime")
+    List<Long> findCaseIdsWithStatusDueBefore(Collection<String> statuses, LocalDateTime dueBefore, Limit limit);
+
+    /** Walks {@code idx_case_due}. */
+    @Query("select c.caseId from Case c where c.dueDateTime < :dueBefore order by c.dueDateTime")
+    List<Long> findCaseIdsDueBefore(LocalDateTime dueBefore, Limit limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Case c where c.caseId in :caseIds "
+            + "and exists (select 1 from ArchivedCase a where a.caseId = c.caseId)")
+    int deleteArchivedByCaseIds(Collection<Long> caseIds);
+
+    @Query("select min(c.dueDateTime) from Case c where c.status not in :excludedStatuses")
+    Optional<LocalDateTime> findOldestOpenDueDate(Collection<String> excludedStatuses);
 
+    @Query("select c from Case c where (c.dueDateTime > :afterDue "
+            + "or (c.dueDateTime = :afterDue and c.caseId > :afterCaseId)) "
+            + "and c.dueDateTime <= :dueUntil and c.status not in :excludedStatuses "
+            + "order by c.dueDateTime, c.caseId")
+    List<Case> findOpenCasesDueBetween(LocalDateTime afterDue, Long afterCaseId,
+                                       LocalDateTime dueUntil, Collection<String> excludedStatuses,
+                                       Limit limit);
 }
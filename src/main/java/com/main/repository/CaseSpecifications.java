@@ -0,0 +1,63 @@
+package com.main.repository;
+
+import com.main.models.Case;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Predicates of the case filter. Each one maps onto a leading column of an
+ * index declared on {@link Case}, so every combination is a range scan.
+ */
+public final class CaseSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CaseSpecifications() {
+    }
+
+    public static Specification<Case> hasStatus(String status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Case> dueFrom(LocalDateTime dueFrom) {
+        return (root, query, cb) -> dueFrom == null ? null
+                : cb.greaterThanOrEqualTo(root.get("dueDateTime"), dueFrom);
+    }
+
+    public static Specification<Case> dueTo(LocalDateTime dueTo) {
+        return (root, query, cb) -> dueTo == null ? null
+                : cb.lessThan(root.get("dueDateTime"), dueTo);
+    }
+
+    public static Specification<Case> titleStartsWith(String titlePrefix) {
+        return (root, query, cb) -> titlePrefix == null || titlePrefix.isEmpty() ? null
+                : cb.like(root.get("title"), escapeLike(titlePrefix) + "%", LIKE_ESCAPE);
+    }
+
+    public static Specification<Case> afterCaseId(Long caseId, Sort.Direction direction) {
+        return (root, query, cb) -> direction.isAscending()
+                ? cb.greaterThan(root.get("caseId"), caseId)
+                : cb.lessThan(root.get("caseId"), caseId);
+    }
+
+    /**
+     * Keyset position on (dueDateTime, caseId), the ids breaking ties between
+     * cases due at the same time.
+     */
+    public static Specification<Case> afterDueDateTime(LocalDateTime dueDateTime, Long caseId,
+                                                       Sort.Direction direction) {
+        return (root, query, cb) -> direction.isAscending()
+                ? cb.or(cb.greaterThan(root.get("dueDateTime"), dueDateTime),
+                        cb.and(cb.equal(root.get("dueDateTime"), dueDateTime),
+                                cb.greaterThan(root.get("caseId"), caseId)))
+                : cb.or(cb.lessThan(root.get("dueDateTime"), dueDateTime),
+                        cb.and(cb.equal(root.get("dueDateTime"), dueDateTime),
+                                cb.lessThan(root.get("caseId"), caseId)));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,90 @@
+package com.main.repository;
+
+import com.main.models.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@code case_idempotency_key}. Claiming a key relies on the
+ * primary key rejecting a second insert, which a JPA save, reading before it
+ * writes, would not report.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRepository {
+
+    private static final String INSERT_CLAIM = """
+            INSERT INTO case_idempotency_key (idempotency_key, request_hash, case_id, created_at)
+            VALUES (?, ?, ?, ?)""";
+
+    private static final String UPDATE_ABANDONED_CLAIM = """
+            UPDATE case_idempotency_key SET created_at = ?
+            WHERE idempotency_key = ? AND request_hash = ? AND response IS NULL AND created_at < ?""";
+
+    private static final String SELECT_BY_KEY = """
+            SELECT idempotency_key, request_hash, case_id, response, created_at
+            FROM case_idempotency_key WHERE idempotency_key = ?""";
+
+    private static final String UPDATE_COMPLETED = """
+            UPDATE case_idempotency_key SET case_id = ?, response = ?
+            WHERE idempotency_key = ?""";
+
+    private static final String DELETE_CLAIM = """
+            DELETE FROM case_idempotency_key WHERE idempotency_key = ? AND response IS NULL""";
+
+    private static final String DELETE_BEFORE = "DELETE FROM case_idempotency_key WHERE created_at < ?";
+
+    private static final RowMapper<IdempotencyRecord> RECORD_ROW_MAPPER = (rs, rowNum) ->
+            new IdempotencyRecord(rs.getString("idempotency_key"), rs.getString("request_hash"),
+                    rs.getObject("case_id", Long.class), rs.getString("response"),
+                    rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the key for a request, reserving {@code caseId} for the case it
+     * creates, or takes over the claim of the same request left uncompleted
+     * since before {@code abandonedBefore}.
+     *
+     * @return the id the caller creates the case under, that of the
+     * abandoned claim when taken over, or empty when another request owns the key
+     */
+    public Optional<Long> claim(String key, String requestHash, Long caseId, LocalDateTime claimedAt,
+                                LocalDateTime abandonedBefore) {
+        try {
+            jdbcTemplate.update(INSERT_CLAIM, key, requestHash, caseId, Timestamp.valueOf(claimedAt));
+            return Optional.of(caseId);
+        } catch (DuplicateKeyException ex) {
+            if (jdbcTemplate.update(UPDATE_ABANDONED_CLAIM, Timestamp.valueOf(claimedAt), key, requestHash,
+                    Timestamp.valueOf(abandonedBefore)) == 0) {
+                return Optional.empty();
+            }
+            // claims written before ids were reserved have none
+            return Optional.of(findByKey(key).map(IdempotencyRecord::getCaseId).orElse(caseId));
+        }
+    }
+
+    public Optional<IdempotencyRecord> findByKey(String key) {
+        return jdbcTemplate.query(SELECT_BY_KEY, RECORD_ROW_MAPPER, key).stream().findFirst();
+    }
+
+    public void complete(String key, Long caseId, String response) {
+        jdbcTemplate.update(UPDATE_COMPLETED, caseId, response, key);
+    }
+
+    /** Gives up a claim whose create failed, so a retry can create the case. */
+    public void release(String key) {
+        jdbcTemplate.update(DELETE_CLAIM, key);
+    }
+
+    public int deleteCreatedBefore(LocalDateTime createdBefore) {
+        return jdbcTemplate.update(DELETE_BEFORE, Timestamp.valueOf(createdBefore));
+    }
+}
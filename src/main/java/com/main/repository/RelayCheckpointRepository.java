@@ -0,0 +1,10 @@
+package com.main.repository;
+
+import com.main.models.RelayCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RelayCheckpointRepository extends JpaRepository<RelayCheckpoint, String> {
+
+}
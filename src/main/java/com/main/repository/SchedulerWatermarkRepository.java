@@ -0,0 +1,35 @@
+package com.main.repository;
+
+import com.main.models.SchedulerWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerWatermarkRepository extends JpaRepository<SchedulerWatermark, String> {
+
+    /** Creates the row of a job leased to {@code owner}, failing if another instance created it first. */
+    @Transactional
+    @Modifying
+    @Query("insert into SchedulerWatermark (name, watermark, owner, leaseUntil) "
+            + "values (:name, :watermark, :owner, :leaseUntil)")
+    int insertLeased(String name, LocalDateTime watermark, String owner, LocalDateTime leaseUntil);
+
+    /** Takes the lease of a job that nobody holds, whose lease expired or that {@code owner} holds already. */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update SchedulerWatermark w set w.owner = :owner, w.leaseUntil = :leaseUntil where w.name = :name "
+            + "and (w.owner is null or w.owner = :owner or w.leaseUntil < :now)")
+    int acquireLease(String name, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+
+    /** Moves the watermark and extends the lease, as long as {@code owner} still holds it. */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update SchedulerWatermark w set w.watermark = :watermark, w.leaseUntil = :leaseUntil "
+            + "where w.name = :name and w.owner = :owner")
+    int renewLease(String name, String owner, LocalDateTime watermark, LocalDateTime leaseUntil);
+}
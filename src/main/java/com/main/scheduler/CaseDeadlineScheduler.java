@@ -0,0 +1,374 @@
+package com.main.scheduler;
+
+import com.main.events.CaseChangedEvent;
+import com.main.events.CaseDeadlineEvent;
+import com.main.events.CaseDeadlineType;
+import com.main.models.Case;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.SchedulerWatermark;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.CaseRepository;
+import com.main.repository.SchedulerWatermarkRepository;
+import com.main.services.CaseService;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Fires {@link CaseDeadlineEvent}s for open cases without polling the case
+ * table. Only cases due within {@code case.deadline.look-ahead} are held in
+ * a time ordered index, which is topped up incrementally from the
+ * {@code due_date_time} index as time moves on and kept current from
+ * {@link CaseChangedEvent}s. The point up to which overdue events were fired
+ * is persisted, so a restart catches up on what it missed instead of
+ * rescanning everything; the very first start catches up from the oldest
+ * open case, so cases that were overdue already still fire and transition.
+ * <p>
+ * One instance fires at a time: the one holding the lease on the watermark
+ * row, renewed with every refresh and taken over by another instance once
+ * it is {@code case.deadline.lease} old. The others stand by. As the
+ * holder only hears the events of its own writes, every refresh also looks
+ * up the cases that other instances changed, from the outbox. After a
+ * takeover the events since the last saved watermark may fire again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "case.deadline.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CaseDeadlineScheduler {
+
+    static final String WATERMARK_NAME = "case-deadline";
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final Comparator<CaseOutboxEntry> BY_OFFSET = Comparator.comparing(CaseOutboxEntry::getId);
+
+    private final CaseRepository caseRepository;
+    private final SchedulerWatermarkRepository watermarkRepository;
+    private final CaseService caseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseShards caseShards;
+    private final CaseOutboxRepository outboxRepository;
+    private final CaseIdGenerator idGenerator;
+
+    @Value("${case.deadline.look-ahead:PT24H}")
+    private Duration lookAhead;
+
+    @Value("${case.deadline.due-soon:PT1H}")
+    private Duration dueSoon;
+
+    @Value("${case.deadline.closed-statuses:Completed,Closed}")
+    private Set<String> closedStatuses;
+
+    @Value("${case.deadline.overdue-status:}")
+    private String overdueStatus;
+
+    @Value("${case.deadline.lease:PT3M}")
+    private Duration lease;
+
+    @Value("${case.feed.settle-time:PT1S}")
+    private Duration settleTime;
+
+    private final NavigableSet<Deadline> dueSoonQueue = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Deadline> overdueQueue = new ConcurrentSkipListSet<>();
+    private final Map<Long, Deadline> tracked = new ConcurrentHashMap<>();
+    private final Set<Long> pendingLookups = ConcurrentHashMap.newKeySet();
+    private Set<String> untrackedStatuses;
+    private String owner;
+
+    private volatile LocalDateTime loadedUntil;
+    private volatile LocalDateTime firedUntil;
+    private volatile LocalDateTime leaseUntil;
+    private volatile long changesOffset;
+
+    @PostConstruct
+    void init() {
+        untrackedStatuses = new HashSet<>(closedStatuses);
+        // the overdue status must not be tracked again or it would fire forever
+        if (!overdueStatus.isBlank()) {
+            untrackedStatuses.add(overdueStatus);
+        }
+        // status is never blank, this only keeps the NOT IN list non empty
+        untrackedStatuses.add("");
+        // worker ids are unique among the running instances
+        owner = "worker-" + idGenerator.workerId();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refreshOrTakeOver(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${case.deadline.refresh-interval:PT1M}",
+            initialDelayString = "${case.deadline.refresh-interval:PT1M}")
+    public void refresh() {
+        refreshOrTakeOver(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${case.deadline.tick-interval:PT1S}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now();
+        // an instance that could not renew its lease in time may have been replaced already
+        if (loadedUntil != null && now.isBefore(leaseUntil)) {
+            tick(now);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCaseChanged(CaseChangedEvent event) {
+        if (loadedUntil == null) {
+            return;
+        }
+        switch (event.type()) {
+            case DELETED, ARCHIVED -> untrack(event.caseId());
+            case CREATED, STATUS_CHANGED -> onCaseWritten(event.caseId(), event.current());
+        }
+    }
+
+    void refreshOrTakeOver(LocalDateTime now) {
+        if (loadedUntil == null) {
+            if (acquireLease(now)) {
+                takeOver(now);
+            }
+        } else if (watermarkRepository.renewLease(WATERMARK_NAME, owner, firedUntil, now.plus(lease)) > 0) {
+            leaseUntil = now.plus(lease);
+            refresh(now);
+        } else {
+            log.warn("{} lost the deadline lease to another instance", owner);
+            standBy();
+        }
+    }
+
+    private boolean acquireLease(LocalDateTime now) {
+        if (watermarkRepository.existsById(WATERMARK_NAME)) {
+            return watermarkRepository.acquireLease(WATERMARK_NAME, owner, now, now.plus(lease)) > 0;
+        }
+        try {
+            return watermarkRepository.insertLeased(WATERMARK_NAME, catchUpFrom(now), owner, now.plus(lease)) > 0;
+        } catch (DataIntegrityViolationException ex) {
+            // another instance started first
+            return false;
+        }
+    }
+
+    /** Just before the oldest open due date, as loading starts after the watermark. */
+    private LocalDateTime catchUpFrom(LocalDateTime now) {
+        return caseShards.scatter(shard -> caseRepository.findOldestOpenDueDate(untrackedStatuses)).stream()
+                .flatMap(Optional::stream)
+                .min(Comparator.naturalOrder())
+                .map(oldest -> oldest.minusNanos(1_000))
+                .filter(from -> from.isBefore(now))
+                .orElse(now);
+    }
+
+    private void takeOver(LocalDateTime now) {
+        leaseUntil = now.plus(lease);
+        firedUntil = watermarkRepository.findById(WATERMARK_NAME)
+                .map(SchedulerWatermark::getWatermark)
+                .orElse(now);
+        // the changes of the settle time before are looked up again, what was loaded may predate them
+        changesOffset = CaseIdGenerator.firstIdAt(now.minus(settleTime).atZone(ZoneId.systemDefault()).toInstant());
+        loadedUntil = firedUntil;
+        log.info("{} fires the case deadlines from {}", owner, firedUntil);
+        refresh(now);
+    }
+
+    private void standBy() {
+        loadedUntil = null;
+        tracked.clear();
+        dueSoonQueue.clear();
+        overdueQueue.clear();
+        pendingLookups.clear();
+    }
+
+    void refresh(LocalDateTime now) {
+        followOtherInstances(now);
+        resolvePendingLookups();
+
+        LocalDateTime until = now.plus(lookAhead);
+        caseShards.scatter(shard -> load(until));
+        loadedUntil = until;
+    }
+
+    private int load(LocalDateTime until) {
+        LocalDateTime afterDue = loadedUntil;
+        Long afterCaseId = Long.MAX_VALUE;
+        int loaded = 0;
+        List<Case> page;
+        do {
+            page = caseRepository.findOpenCasesDueBetween(afterDue, afterCaseId, until,
+                    untrackedStatuses, Limit.of(LOAD_PAGE_SIZE));
+            page.forEach(cs -> track(cs.getCaseId(), cs.getDueDateTime()));
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                Case last = page.get(page.size() - 1);
+                afterDue = last.getDueDateTime();
+                afterCaseId = last.getCaseId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        return loaded;
+    }
+
+    void tick(LocalDateTime now) {
+        LocalDateTime dueSoonUntil = now.plus(dueSoon);
+        for (Deadline deadline : dueSoonQueue) {
+            if (deadline.dueDateTime().isAfter(dueSoonUntil)) {
+                break;
+            }
+            if (dueSoonQueue.remove(deadline) && deadline.dueDateTime().isAfter(now)) {
+                fire(CaseDeadlineType.DUE_SOON, deadline);
+            }
+        }
+        for (Deadline deadline : overdueQueue) {
+            if (deadline.dueDateTime().isAfter(now)) {
+                break;
+            }
+            if (overdueQueue.remove(deadline)) {
+                tracked.remove(deadline.caseId(), deadline);
+                fire(CaseDeadlineType.OVERDUE, deadline);
+                transitionOverdue(deadline.caseId());
+            }
+        }
+        firedUntil = now;
+    }
+
+    int trackedCount() {
+        return tracked.size();
+    }
+
+    private void onCaseWritten(Long caseId, Case current) {
+        if (untrackedStatuses.contains(current.getStatus())) {
+            untrack(caseId);
+        } else if (current.getDueDateTime() != null) {
+            if (!current.getDueDateTime().isAfter(loadedUntil)) {
+                track(caseId, current.getDueDateTime());
+            }
+        } else if (!tracked.containsKey(caseId)) {
+            // reopened case, its due date is looked up with the next refresh
+            pendingLookups.add(caseId);
+        }
+    }
+
+    /**
+     * Queues the cases other instances changed since the last refresh for a
+     * lookup. Only changes older than the settle time are read, as a
+     * transaction holding a lower offset may still commit behind them.
+     */
+    private void followOtherInstances(LocalDateTime now) {
+        LocalDateTime settledUntil = now.minus(settleTime);
+        List<CaseOutboxEntry> batch;
+        do {
+            long offset = changesOffset;
+            batch = CaseShards.mergeSorted(caseShards.scatter(shard ->
+                    outboxRepository.findAfter(offset, settledUntil, LOAD_PAGE_SIZE)), BY_OFFSET, LOAD_PAGE_SIZE);
+            batch.stream()
+                    // the events of this instance's own writes were handled as they came
+                    .filter(entry -> CaseIdGenerator.workerOf(entry.getId()) != idGenerator.workerId())
+                    .forEach(entry -> pendingLookups.add(entry.getCaseId()));
+            if (!batch.isEmpty()) {
+                changesOffset = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_PAGE_SIZE);
+    }
+
+    private void resolvePendingLookups() {
+        if (pendingLookups.isEmpty()) {
+            return;
+        }
+        List<Long> caseIds = new ArrayList<>(pendingLookups);
+        pendingLookups.removeAll(caseIds);
+        for (int from = 0; from < caseIds.size(); from += LOAD_PAGE_SIZE) {
+            List<Long> chunk = caseIds.subList(from, Math.min(from + LOAD_PAGE_SIZE, caseIds.size()));
+            Map<Long, Case> found = caseShards.scatter(shard -> caseRepository.findAllById(chunk)).stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toMap(Case::getCaseId, Function.identity()));
+            for (Long caseId : chunk) {
+                Case cs = found.get(caseId);
+                if (cs == null || untrackedStatuses.contains(cs.getStatus())
+                        || cs.getDueDateTime().isAfter(loadedUntil)) {
+                    // gone, closed, or due later and loaded when the window gets there
+                    untrack(caseId);
+                } else {
+                    track(caseId, cs.getDueDateTime());
+                }
+            }
+        }
+    }
+
+    private void track(Long caseId, LocalDateTime dueDateTime) {
+        Deadline deadline = new Deadline(dueDateTime, caseId);
+        Deadline previous = tracked.put(caseId, deadline);
+        if (deadline.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            dueSoonQueue.remove(previous);
+            overdueQueue.remove(previous);
+        }
+        dueSoonQueue.add(deadline);
+        overdueQueue.add(deadline);
+    }
+
+    private void untrack(Long caseId) {
+        Deadline deadline = tracked.remove(caseId);
+        if (deadline != null) {
+            dueSoonQueue.remove(deadline);
+            overdueQueue.remove(deadline);
+        }
+    }
+
+    private void fire(CaseDeadlineType type, Deadline deadline) {
+        log.info("case {} is {}, due at {}", deadline.caseId(), type, deadline.dueDateTime());
+        eventPublisher.publishEvent(new CaseDeadlineEvent(type, deadline.caseId(),
+                deadline.dueDateTime()));
+    }
+
+    private void transitionOverdue(Long caseId) {
+        if (overdueStatus.isBlank()) {
+            return;
+        }
+        try {
+            caseService.changeCaseStatus(caseId, overdueStatus, null);
+        } catch (RuntimeException ex) {
+            log.error("error: moving case {} to {} failed", caseId, overdueStatus, ex);
+        }
+    }
+
+    private record Deadline(LocalDateTime dueDateTime, Long caseId) implements Comparable<Deadline> {
+
+        private static final Comparator<Deadline> ORDER = Comparator
+                .comparing(Deadline::dueDateTime)
+                .thenComparing(Deadline::caseId);
+
+        @Override
+        public int compareTo(Deadline other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
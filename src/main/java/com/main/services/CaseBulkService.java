@@ -0,0 +1,14 @@
+package com.main.services;
+
+import com.main.models.BulkCaseFilter;
+import com.main.models.BulkCreateResponse;
+import com.main.models.BulkOperationResponse;
+import com.main.models.Case;
+
+import java.util.Iterator;
+
+public interface CaseBulkService {
+    BulkCreateResponse createCases(Iterator<Case> cases);
+    BulkOperationResponse updateCaseStatuses(BulkCaseFilter filter, String newStatus);
+    BulkOperationResponse deleteCases(BulkCaseFilter filter);
+}
@@ -0,0 +1,13 @@
+package com.main.services;
+
+import com.main.models.CaseOutboxEntry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface CaseFeedService {
+    long tailChanges(long offset, boolean follow, Consumer<List<CaseOutboxEntry>> consumer);
+    Optional<List<Long>> latestOffsets();
+    int purgeExpiredChanges();
+}
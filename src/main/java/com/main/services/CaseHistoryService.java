@@ -0,0 +1,7 @@
+package com.main.services;
+
+import com.main.models.CaseHistoryPage;
+
+public interface CaseHistoryService {
+    CaseHistoryPage findHistory(Long caseId, String cursor, int size);
+}
@@ -0,0 +1,15 @@
+package com.main.services;
+
+import com.main.models.Case;
+import com.main.models.IdempotentCase;
+
+import java.util.Optional;
+
+public interface CaseIdempotencyService {
+    /**
+     * Creates the case once per key and returns that case for every retry.
+     * Empty while another instance is still creating the case of the key.
+     */
+    Optional<IdempotentCase> createCase(String key, Case caseDetails);
+    int purgeExpiredKeys();
+}
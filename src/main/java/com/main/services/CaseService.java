@@ -1,14 +1,25 @@
 package com.main.services;
 
 import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.models.CaseQuery;
+import com.main.models.CaseSearchPage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CaseService {
     Case createCase(Case caseDetails);
+    Case createCase(Case caseDetails, Long caseId);
     Optional<Case> updateCaseStatus(Long caseId, String status);
+    Optional<Case> updateCaseStatus(Long caseId, String status, Long expectedVersion);
+    boolean changeCaseStatus(Long caseId, String status, Long expectedVersion);
     Case findCase(Long caseId);
     List<Case> findAllCases();
+    CasePage findCases(String cursor, int size);
+    CasePage filterCases(CaseQuery query, String cursor, int size);
+    CaseSearchPage searchCases(String text, String cursor, int size);
+    void streamAllCases(Consumer<Case> consumer);
     void deleteCase(Long caseId);
 }
@@ -0,0 +1,8 @@
+package com.main.services;
+
+import com.main.models.CaseStatistics;
+
+public interface CaseStatisticsService {
+    CaseStatistics getStatistics();
+    void reconcile();
+}
@@ -0,0 +1,276 @@
+package com.main.services.impl;
+
+import com.main.events.CaseChangedEvent;
+import com.main.exception.InvalidRequestException;
+import com.main.models.BulkCaseFilter;
+import com.main.models.BulkCaseOutcome;
+import com.main.models.BulkCaseResult;
+import com.main.models.BulkCreateResponse;
+import com.main.models.BulkOperationResponse;
+import com.main.models.Case;
+import com.main.models.CaseState;
+import com.main.repository.CaseRepository;
+import com.main.services.CaseBulkService;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static com.main.constants.CommonConstant.CASE_CACHE;
+import static com.main.constants.CommonConstant.SERVICE_TIMER;
+import static com.main.constants.ErrorsConstant.INVALID_BULK_FILTER;
+
+/**
+ * Inserts cases chunk by chunk, each chunk in its own transaction and sent
+ * to the database as JDBC batches of {@code case.bulk.batch-size} rows.
+ * Of the cases only the current chunk is held in memory, so the input can be
+ * streamed; the response keeps a small result per row. A row that cannot be
+ * read ends the input: the rows before it are still inserted and it is
+ * reported as rejected.
+ * Status changes and deletes run as set based statements over chunks of
+ * {@code case.bulk.chunk-size} ids, keeping every transaction small. The
+ * cases of a chunk that exist are locked and read first, and only those are
+ * changed and published as changes along with what they were before.
+ */
+@Slf4j
+@Service
+@Timed(SERVICE_TIMER)
+@RequiredArgsConstructor
+public class CaseBulkServiceImpl implements CaseBulkService {
+
+    private final CaseRepository caseRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseShards caseShards;
+    private final CaseIdGenerator caseIdGenerator;
+
+    @Value("${case.bulk.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${case.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public BulkCreateResponse createCases(Iterator<Case> cases) {
+        long start = System.nanoTime();
+        List<BulkCaseResult> results = new ArrayList<>();
+        List<Case> chunk = new ArrayList<>(batchSize);
+        List<BulkCaseResult> chunkResults = new ArrayList<>(batchSize);
+
+        int index = 0;
+        while (true) {
+            Case caseDetails;
+            try {
+                if (!cases.hasNext()) {
+                    break;
+                }
+                caseDetails = cases.next();
+            } catch (InvalidRequestException ex) {
+                // the input cannot be read past a malformed row
+                results.add(new BulkCaseResult(index, null, BulkCaseOutcome.REJECTED,
+                        Map.of("case", ex.getMessage())));
+                break;
+            }
+            Map<String, String> errors = validate(caseDetails);
+            if (errors.isEmpty()) {
+                BulkCaseResult result = new BulkCaseResult(index, null, null, null);
+                chunk.add(caseDetails);
+                chunkResults.add(result);
+                results.add(result);
+            } else {
+                results.add(new BulkCaseResult(index, null, BulkCaseOutcome.REJECTED, errors));
+            }
+            if (chunk.size() == batchSize) {
+                insertChunk(chunk, chunkResults);
+            }
+            index++;
+        }
+        insertChunk(chunk, chunkResults);
+
+        return summarize(results, System.nanoTime() - start);
+    }
+
+    @Override
+    public BulkOperationResponse updateCaseStatuses(BulkCaseFilter filter, String newStatus) {
+        LocalDateTime modifiedAt = LocalDateTime.now();
+        // a status change replaces only the status, its state is all it needs to read
+        return applyInChunks(filter,
+                caseIds -> caseRepository.findStatesForUpdate(caseIds).stream().map(CaseState::toCase).toList(),
+                caseIds -> caseRepository.updateStatusByCaseIds(caseIds, newStatus, modifiedAt),
+                previous -> CaseChangedEvent.statusChanged(previous, newStatus));
+    }
+
+    @Override
+    public BulkOperationResponse deleteCases(BulkCaseFilter filter) {
+        return applyInChunks(filter, caseRepository::findAllForUpdate, caseRepository::deleteByCaseIds,
+                CaseChangedEvent::deleted);
+    }
+
+    private BulkOperationResponse applyInChunks(BulkCaseFilter filter,
+                                                Function<List<Long>, List<Case>> lock,
+                                                ToIntFunction<List<Long>> operation,
+                                                Function<Case, CaseChangedEvent> event) {
+        long start = System.nanoTime();
+        AtomicLong affected = new AtomicLong();
+        AtomicInteger chunks = new AtomicInteger();
+
+        if (filter.getCaseIds() != null && !filter.getCaseIds().isEmpty()) {
+            Map<Integer, List<Long>> caseIdsByShard = filter.getCaseIds().stream().distinct()
+                    .collect(Collectors.groupingBy(caseShards::shardOf, TreeMap::new, Collectors.toList()));
+            for (Map.Entry<Integer, List<Long>> shard : caseIdsByShard.entrySet()) {
+                List<Long> caseIds = shard.getValue();
+                caseShards.onShard(shard.getKey(), () -> {
+                    for (int from = 0; from < caseIds.size(); from += chunkSize) {
+                        affected.addAndGet(applyChunk(caseIds.subList(from,
+                                Math.min(from + chunkSize, caseIds.size())), lock, operation, event));
+                        chunks.incrementAndGet();
+                    }
+                });
+            }
+        } else if (filter.getStatus() != null && filter.getDueBefore() != null) {
+            for (int shard = 0; shard < caseShards.count(); shard++) {
+                caseShards.onShard(shard, () -> {
+                    Long afterCaseId = 0L;
+                    List<Long> caseIds;
+                    while (!(caseIds = caseRepository.findCaseIdsByStatusAndDueBefore(filter.getStatus(),
+                            filter.getDueBefore(), afterCaseId, Limit.of(chunkSize))).isEmpty()) {
+                        affected.addAndGet(applyChunk(caseIds, lock, operation, event));
+                        chunks.incrementAndGet();
+                        afterCaseId = caseIds.get(caseIds.size() - 1);
+                    }
+                });
+            }
+        } else {
+            throw new InvalidRequestException(INVALID_BULK_FILTER);
+        }
+
+        return new BulkOperationResponse(affected.get(), chunks.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private int applyChunk(List<Long> caseIds, Function<List<Long>, List<Case>> lock,
+                           ToIntFunction<List<Long>> operation, Function<Case, CaseChangedEvent> event) {
+        Integer affected = transactionTemplate.execute(status -> {
+            // ids that are unknown or already deleted change nothing and must not show up as changes
+            List<Case> existing = lock.apply(caseIds);
+            if (existing.isEmpty()) {
+                return 0;
+            }
+            int rows = operation.applyAsInt(existing.stream().map(Case::getCaseId).toList());
+            existing.forEach(previous -> eventPublisher.publishEvent(event.apply(previous)));
+            return rows;
+        });
+        Cache cache = cacheManager.getCache(CASE_CACHE);
+        if (cache != null) {
+            caseIds.forEach(cache::evict);
+        }
+        return affected == null ? 0 : affected;
+    }
+
+    private Map<String, String> validate(Case caseDetails) {
+        Map<String, String> errors = new HashMap<>();
+        Set<ConstraintViolation<Case>> violations = validator.validate(caseDetails);
+        violations.forEach(violation -> errors.put(
+                violation.getPropertyPath().toString(), violation.getMessage()));
+        if (caseDetails.getCaseId() != null) {
+            errors.put("caseId", "Case id is assigned by the server");
+        }
+        if (caseDetails.getDueDateTime() == null) {
+            errors.put("dueDateTime", "Due date time is required");
+        }
+        return errors;
+    }
+
+    private void insertChunk(List<Case> chunk, List<BulkCaseResult> chunkResults) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // the id picks the shard, each shard gets its part of the chunk in a transaction of its own
+        Map<Integer, List<Integer>> indexesByShard = new TreeMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Case caseDetails = chunk.get(i);
+            caseDetails.setCaseId(caseIdGenerator.nextId());
+            indexesByShard.computeIfAbsent(caseShards.shardOf(caseDetails.getCaseId()),
+                    shard -> new ArrayList<>()).add(i);
+        }
+        if (indexesByShard.size() == 1) {
+            caseShards.onShard(indexesByShard.keySet().iterator().next(),
+                    () -> insertShardChunk(chunk, chunkResults));
+        } else {
+            indexesByShard.forEach((shard, indexes) -> caseShards.onShard(shard, () -> insertShardChunk(
+                    indexes.stream().map(chunk::get).collect(Collectors.toList()),
+                    indexes.stream().map(chunkResults::get).toList())));
+        }
+        chunk.clear();
+        chunkResults.clear();
+    }
+
+    private void insertShardChunk(List<Case> chunk, List<BulkCaseResult> chunkResults) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                caseRepository.saveAll(chunk);
+                caseRepository.flush();
+                chunk.forEach(cs -> eventPublisher.publishEvent(CaseChangedEvent.created(cs)));
+                entityManager.clear();
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkResults.get(i).setCaseId(chunk.get(i).getCaseId());
+                chunkResults.get(i).setOutcome(BulkCaseOutcome.CREATED);
+            }
+        } catch (RuntimeException ex) {
+            log.error("error: bulk insert of {} cases failed", chunk.size(), ex);
+            chunkResults.forEach(result -> {
+                result.setOutcome(BulkCaseOutcome.FAILED);
+                result.setErrors(Map.of("case", String.valueOf(ex.getMessage())));
+            });
+        }
+    }
+
+    private BulkCreateResponse summarize(List<BulkCaseResult> results, long elapsedNanos) {
+        int created = 0;
+        int rejected = 0;
+        int failed = 0;
+        for (BulkCaseResult result : results) {
+            switch (result.getOutcome()) {
+                case CREATED -> created++;
+                case REJECTED -> rejected++;
+                case FAILED -> failed++;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        double casesPerSecond = elapsedNanos == 0 ? 0 : created * 1_000_000_000d / elapsedNanos;
+        return new BulkCreateResponse(results.size(), created, rejected, failed,
+                elapsedMillis, casesPerSecond, results);
+    }
+}
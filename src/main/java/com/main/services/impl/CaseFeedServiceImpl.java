@@ -0,0 +1,155 @@
+package com.main.services.impl;
+
+import com.main.exception.InvalidRequestException;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.RelayCheckpoint;
+import com.main.outbox.CaseOutboxRelay;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.RelayCheckpointRepository;
+import com.main.services.CaseFeedService;
+import com.main.sharding.CaseShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.main.constants.ErrorsConstant.INVALID_OFFSET;
+
+/**
+ * Serves the outboxes of all shards as one change feed, merged in offset
+ * order. Outbox ids are handed out at insert time but become visible at
+ * commit, so a transaction that commits late can leave a lower id behind one
+ * a consumer has already read. Only entries older than
+ * {@code case.feed.settle-time} are served, which gives such transactions
+ * time to commit before the consumer moves past them; the clocks of the
+ * instances writing changes must agree to well within that time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CaseFeedServiceImpl implements CaseFeedService {
+
+    private static final Comparator<CaseOutboxEntry> BY_OFFSET = Comparator.comparing(CaseOutboxEntry::getId);
+
+    private final CaseOutboxRepository outboxRepository;
+    private final RelayCheckpointRepository checkpointRepository;
+    private final CaseShards caseShards;
+
+    @Value("${case.feed.batch-size:500}")
+    private int batchSize;
+
+    @Value("${case.feed.poll-interval:PT0.5S}")
+    private Duration pollInterval;
+
+    @Value("${case.feed.settle-time:PT1S}")
+    private Duration settleTime;
+
+    @Value("${case.feed.max-duration:PT9M}")
+    private Duration maxDuration;
+
+    @Value("${case.feed.retention:P7D}")
+    private Duration retention;
+
+    @Value("${case.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    /**
+     * Hands the changes after {@code offset} to {@code consumer} in batches of
+     * at most {@code case.feed.batch-size}; the next batch is only read once
+     * the consumer has returned, so a slow consumer slows the reads down. With
+     * {@code follow} the feed keeps polling for new changes until
+     * {@code case.feed.max-duration} has passed.
+     *
+     * @return the offset to resume from
+     */
+    @Override
+    public long tailChanges(long offset, boolean follow, Consumer<List<CaseOutboxEntry>> consumer) {
+        if (offset < 0) {
+            throw new InvalidRequestException(INVALID_OFFSET);
+        }
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long lastOffset = offset;
+        while (true) {
+            List<CaseOutboxEntry> batch = findAfter(lastOffset, LocalDateTime.now().minus(settleTime));
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                lastOffset = batch.get(batch.size() - 1).getId();
+            }
+            if (System.nanoTime() - deadline >= 0 || (!follow && batch.size() < batchSize)) {
+                return lastOffset;
+            }
+            if (batch.size() < batchSize && !pause()) {
+                return lastOffset;
+            }
+        }
+    }
+
+    /**
+     * The offset of the latest change on every shard, which moves whenever
+     * a case is written and so tells whether anything changed since. Empty
+     * while the latest change on some shard is younger than the settle time,
+     * as a transaction holding a lower offset may still commit behind it.
+     */
+    @Override
+    public Optional<List<Long>> latestOffsets() {
+        LocalDateTime settledUntil = LocalDateTime.now().minus(settleTime);
+        List<Optional<CaseOutboxEntry>> latest = caseShards.scatter(shard -> outboxRepository.findLatest());
+        if (latest.stream().flatMap(Optional::stream)
+                .anyMatch(entry -> entry.getOccurredAt().isAfter(settledUntil))) {
+            return Optional.empty();
+        }
+        return Optional.of(latest.stream().map(entry -> entry.map(CaseOutboxEntry::getId).orElse(0L)).toList());
+    }
+
+    /**
+     * Deletes the changes older than {@code case.feed.retention}, but with
+     * the relay enabled none it has not delivered yet, however old.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${case.feed.purge-interval:PT1H}")
+    public int purgeExpiredChanges() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        long maxOffset = relayEnabled
+                ? checkpointRepository.findById(CaseOutboxRelay.CHECKPOINT_NAME)
+                        .map(RelayCheckpoint::getLastOffset)
+                        .orElse(0L)
+                : Long.MAX_VALUE;
+        // every shard writes the changes of its cases to its own outbox
+        int purged = caseShards.scatter(shard -> outboxRepository.deleteOccurredBefore(before, maxOffset)).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (purged > 0) {
+            log.info("purged {} case changes older than {}", purged, retention);
+        }
+        return purged;
+    }
+
+    /**
+     * The first changes after {@code offset} over all shards. Each shard
+     * returns at most a batch in offset order, so whatever a shard did not
+     * return has a higher offset than the last change of the merged batch.
+     */
+    private List<CaseOutboxEntry> findAfter(long offset, LocalDateTime occurredUntil) {
+        return CaseShards.mergeSorted(caseShards.scatter(shard ->
+                        outboxRepository.findAfter(offset, occurredUntil, batchSize)),
+                BY_OFFSET, batchSize);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pollInterval);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
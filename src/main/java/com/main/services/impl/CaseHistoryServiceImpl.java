@@ -0,0 +1,68 @@
+package com.main.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.exception.InvalidRequestException;
+import com.main.models.CaseAuditEntry;
+import com.main.models.CaseFieldChange;
+import com.main.models.CaseHistoryEntry;
+import com.main.models.CaseHistoryPage;
+import com.main.repository.CaseAuditRepository;
+import com.main.services.CaseHistoryService;
+import com.main.sharding.CaseShards;
+import com.main.utils.CursorUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.main.constants.CommonConstant.MAX_PAGE_SIZE;
+import static com.main.constants.ErrorsConstant.INVALID_PAGE_SIZE;
+
+/**
+ * Reads the history of a case back from {@code case_audit}, which lives on
+ * the shard of the case. With {@code case.audit.durability=buffered} the
+ * latest changes show up once the audit writer has flushed them.
+ */
+@Service
+@RequiredArgsConstructor
+public class CaseHistoryServiceImpl implements CaseHistoryService {
+
+    private static final TypeReference<Map<String, CaseFieldChange>> CHANGES_TYPE = new TypeReference<>() {
+    };
+
+    private final CaseAuditRepository auditRepository;
+    private final CaseShards caseShards;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    @Override
+    public CaseHistoryPage findHistory(Long caseId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException(INVALID_PAGE_SIZE + MAX_PAGE_SIZE);
+        }
+        long afterId = cursor == null ? 0L : CursorUtil.decodeLong(cursor);
+        caseShards.bind(caseId);
+        // one extra row tells whether another page exists
+        List<CaseHistoryEntry> entries = auditRepository.findByCaseIdAfter(caseId, afterId, size + 1).stream()
+                .map(this::toHistoryEntry)
+                .toList();
+        if (entries.size() <= size) {
+            return new CaseHistoryPage(entries, null);
+        }
+        List<CaseHistoryEntry> content = entries.subList(0, size);
+        return new CaseHistoryPage(content, CursorUtil.encode(content.get(size - 1).getId()));
+    }
+
+    private CaseHistoryEntry toHistoryEntry(CaseAuditEntry entry) {
+        try {
+            return new CaseHistoryEntry(entry.getId(), entry.getChangeType(),
+                    objectMapper.readValue(entry.getChanges(), CHANGES_TYPE), entry.getChangedAt());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
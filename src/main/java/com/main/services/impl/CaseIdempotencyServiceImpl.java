@@ -0,0 +1,221 @@
+package com.main.services.impl;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.main.exception.InvalidRequestException;
+import com.main.models.Case;
+import com.main.models.IdempotencyRecord;
+import com.main.models.IdempotentCase;
+import com.main.repository.IdempotencyRepository;
+import com.main.services.CaseIdempotencyService;
+import com.main.services.CaseService;
+import com.main.sharding.CaseIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.main.constants.ErrorsConstant.IDEMPOTENCY_KEY_REUSED;
+import static com.main.constants.ErrorsConstant.INVALID_IDEMPOTENCY_KEY;
+
+/**
+ * Creates a case once per {@code Idempotency-Key}. Requests for the same key
+ * on this instance wait for the first one and share its outcome, which then
+ * stays in a bounded in-memory cache. Across instances the key is claimed
+ * by inserting its row before the case is created: a retry on another
+ * instance replays the stored response, or is told to come back while the
+ * first request is still running. The row reserves the id of the case, so
+ * a retry taking over a claim abandoned after its case was created finds
+ * that case instead of creating another. Keys expire after {@code case.idempotency.ttl}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CaseIdempotencyServiceImpl implements CaseIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final CaseService caseService;
+    private final IdempotencyRepository idempotencyRepository;
+    private final CaseIdGenerator caseIdGenerator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${case.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${case.idempotency.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${case.idempotency.abandon-after:PT1M}")
+    private Duration abandonAfter;
+
+    private Cache<String, CompletableFuture<Outcome>> outcomes;
+    private ObjectReader responseReader;
+
+    @PostConstruct
+    void init() {
+        outcomes = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        // the stored response is our own output, so its read only fields are read back too
+        responseReader = objectMapper.copy()
+                .setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+                    @Override
+                    public JsonProperty.Access findPropertyAccess(Annotated annotated) {
+                        return null;
+                    }
+                })
+                .readerFor(Case.class);
+    }
+
+    @Override
+    public Optional<IdempotentCase> createCase(String key, Case caseDetails) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(INVALID_IDEMPOTENCY_KEY);
+        }
+        String requestHash = hash(caseDetails);
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        CompletableFuture<Outcome> first = outcomes.asMap().putIfAbsent(key, mine);
+        if (first != null) {
+            return result(await(first), requestHash, true);
+        }
+        Outcome outcome;
+        try {
+            outcome = createOnce(key, requestHash, caseDetails);
+        } catch (RuntimeException ex) {
+            outcomes.asMap().remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        // only a created case is remembered, a claim still running elsewhere is asked again
+        if (outcome.created() == null) {
+            outcomes.asMap().remove(key, mine);
+        }
+        mine.complete(outcome);
+        return result(outcome, requestHash, !outcome.createdHere());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${case.idempotency.purge-interval:PT1H}")
+    public int purgeExpiredKeys() {
+        int purged = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.info("purged {} idempotency keys older than {}", purged, ttl);
+        }
+        return purged;
+    }
+
+    private Outcome createOnce(String key, String requestHash, Case caseDetails) {
+        LocalDateTime now = LocalDateTime.now();
+        long reservedId = caseIdGenerator.nextId();
+        Optional<Long> caseId = idempotencyRepository.claim(key, requestHash, reservedId, now, now.minus(abandonAfter));
+        if (caseId.isEmpty()) {
+            // purged or released since the claim failed, the client retries like for a running one
+            IdempotencyRecord record = idempotencyRepository.findByKey(key)
+                    .orElse(new IdempotencyRecord(key, requestHash, null, null, now));
+            Case created = record.getResponse() == null ? null : read(record.getResponse());
+            return new Outcome(record.getRequestHash(), created, false);
+        }
+        Case created;
+        try {
+            created = caseId.get() == reservedId
+                    ? caseService.createCase(caseDetails, reservedId)
+                    : createOrFind(caseId.get(), caseDetails);
+        } catch (RuntimeException ex) {
+            idempotencyRepository.release(key);
+            throw ex;
+        }
+        try {
+            idempotencyRepository.complete(key, created.getCaseId(), write(created));
+        } catch (DataAccessException ex) {
+            // the case exists, a retry after abandon-after finds it under the reserved id
+            log.error("error: case {} created but idempotency key {} not completed", created.getCaseId(), key, ex);
+        }
+        return new Outcome(requestHash, created, true);
+    }
+
+    /** Completes a claim taken over from a request that may have created the case before it stopped. */
+    private Case createOrFind(Long caseId, Case caseDetails) {
+        try {
+            return caseService.findCase(caseId);
+        } catch (NoSuchElementException ex) {
+            try {
+                return caseService.createCase(caseDetails, caseId);
+            } catch (DataIntegrityViolationException duplicate) {
+                // the abandoned request was only slow and has just created it
+                return caseService.findCase(caseId);
+            }
+        }
+    }
+
+    private static Optional<IdempotentCase> result(Outcome outcome, String requestHash, boolean replayed) {
+        if (!outcome.requestHash().equals(requestHash)) {
+            throw new InvalidRequestException(IDEMPOTENCY_KEY_REUSED);
+        }
+        return Optional.ofNullable(outcome.created()).map(created -> new IdempotentCase(created, replayed));
+    }
+
+    private static Outcome await(CompletableFuture<Outcome> first) {
+        try {
+            return first.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private String hash(Case caseDetails) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(caseDetails));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String write(Case created) {
+        try {
+            return objectMapper.writeValueAsString(created);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Case read(String response) {
+        try {
+            return responseReader.readValue(response);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** What the first request for a key found; {@code created} is null while another instance runs it. */
+    private record Outcome(String requestHash, Case created, boolean createdHere) {
+    }
+}
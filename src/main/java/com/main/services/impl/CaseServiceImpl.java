@@ -1,56 +1,360 @@
 package com.main.services.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.main.coalescing.CaseLookupBatcher;
+import com.main.coalescing.SingleFlight;
+import com.main.config.datasource.ReadYourWritesFilter;
+import com.main.events.CaseChangedEvent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.main.exception.CaseArchivedException;
+import com.main.exception.InvalidRequestException;
 import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.models.CaseQuery;
+import com.main.models.CaseSearchHit;
+import com.main.models.CaseSearchPage;
+import com.main.models.CaseState;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseJdbcRepository;
 import com.main.repository.CaseRepository;
+import com.main.repository.CaseSpecifications;
 import com.main.services.CaseService;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import com.main.utils.CursorUtil;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import static com.main.constants.CommonConstant.CASE_CACHE;
+import static com.main.constants.CommonConstant.MAX_PAGE_SIZE;
+import static com.main.constants.CommonConstant.MAX_SEARCH_OFFSET;
+import static com.main.constants.CommonConstant.SERVICE_TIMER;
+import static com.main.constants.ErrorsConstant.CASE_ARCHIVED;
+import static com.main.constants.ErrorsConstant.CASE_VERSION_CONFLICT;
+import static com.main.constants.ErrorsConstant.EMPTY_SEARCH_TEXT;
+import static com.main.constants.ErrorsConstant.INVALID_CURSOR;
+import static com.main.constants.ErrorsConstant.INVALID_DIRECTION;
+import static com.main.constants.ErrorsConstant.INVALID_OFFSET;
+import static com.main.constants.ErrorsConstant.INVALID_PAGE_SIZE;
+import static com.main.constants.ErrorsConstant.INVALID_SORT;
+import static com.main.repository.CaseSpecifications.afterCaseId;
+import static com.main.repository.CaseSpecifications.dueFrom;
+import static com.main.repository.CaseSpecifications.dueTo;
+import static com.main.repository.CaseSpecifications.hasStatus;
+import static com.main.repository.CaseSpecifications.titleStartsWith;
 import static com.main.constants.ErrorsConstant.NO_SUCH_ELEMENT_EXCEPTION;
 
 @Service
-@RequiredArgsConstructor
+@Timed(SERVICE_TIMER)
 public class CaseServiceImpl implements CaseService {
 
+    private static final String SORT_BY_DUE_DATE_TIME = "dueDateTime";
+    private static final String SORT_BY_CASE_ID = "caseId";
+    private static final String ALL_CASES = "all";
+    private static final Comparator<Case> BY_CASE_ID = Comparator.comparing(Case::getCaseId);
+    private static final Comparator<Case> BY_DUE_DATE_TIME =
+            Comparator.comparing(Case::getDueDateTime).thenComparing(Case::getCaseId);
+    private static final Comparator<CaseSearchHit> BY_SCORE =
+            Comparator.comparingDouble(CaseSearchHit::getScore).reversed()
+                    .thenComparing(hit -> hit.getCaseDetails().getCaseId());
+
     private final CaseRepository caseRepository;
+    private final CaseJdbcRepository caseJdbcRepository;
+    private final ArchivedCaseRepository archivedCaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseShards caseShards;
+    private final CaseIdGenerator caseIdGenerator;
+    private final CaseLookupBatcher caseLookupBatcher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // identical reads at the same time share one query, which runs in a transaction of its
+    // own so the callers waiting for it hold no connection
+    private final SingleFlight<ReadKey, List<Case>> allCasesReads = new SingleFlight<>();
+    private final SingleFlight<ReadKey, CasePage> pageReads = new SingleFlight<>();
+    private final SingleFlight<ReadKey, CasePage> filterReads = new SingleFlight<>();
+    private final SingleFlight<ReadKey, CaseSearchPage> searchReads = new SingleFlight<>();
+
+    public CaseServiceImpl(CaseRepository caseRepository, CaseJdbcRepository caseJdbcRepository,
+                           ArchivedCaseRepository archivedCaseRepository, ApplicationEventPublisher eventPublisher,
+                           CaseShards caseShards, CaseIdGenerator caseIdGenerator,
+                           CaseLookupBatcher caseLookupBatcher, TransactionTemplate transactionTemplate) {
+        this.caseRepository = caseRepository;
+        this.caseJdbcRepository = caseJdbcRepository;
+        this.archivedCaseRepository = archivedCaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.caseShards = caseShards;
+        this.caseIdGenerator = caseIdGenerator;
+        this.caseLookupBatcher = caseLookupBatcher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     @Transactional
+    @CachePut(cacheNames = CASE_CACHE, key = "#result.caseId")
     @Override
     public Case createCase(Case caseDetails) {
-        return caseRepository.save(caseDetails);
+        // the id picks the shard, so it is assigned before the insert
+        return createCase(caseDetails, caseIdGenerator.nextId());
+    }
+
+    /** Creates the case under an id reserved from the {@code CaseIdGenerator}, a second create of it fails. */
+    @Transactional
+    @CachePut(cacheNames = CASE_CACHE, key = "#result.caseId")
+    @Override
+    public Case createCase(Case caseDetails, Long caseId) {
+        caseDetails.setCaseId(caseId);
+        caseShards.bind(caseId);
+        Case created = caseRepository.save(caseDetails);
+        eventPublisher.publishEvent(CaseChangedEvent.created(created));
+        return created;
     }
 
     @Transactional
+    @CachePut(cacheNames = CASE_CACHE, key = "#caseId", unless = "#result == null")
     @Override
     public Optional<Case> updateCaseStatus(Long caseId, String status) {
-        return caseRepository.findById(caseId)
-                .map(cs -> {
-                    cs.setStatus(status);
-                    return caseRepository.save(cs);
-        });
+        return updateCaseStatus(caseId, status, null);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional
+    @CachePut(cacheNames = CASE_CACHE, key = "#caseId", unless = "#result == null")
+    @Override
+    public Optional<Case> updateCaseStatus(Long caseId, String status, Long expectedVersion) {
+        caseShards.bind(caseId);
+        if (!changeCaseStatus(caseId, status, expectedVersion)) {
+            return Optional.empty();
+        }
+        return caseRepository.findById(caseId);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CASE_CACHE, key = "#caseId")
+    @Override
+    public boolean changeCaseStatus(Long caseId, String status, Long expectedVersion) {
+        caseShards.bind(caseId);
+        // the state it replaces is read without a lock, the version the update checks makes sure
+        // no other write got in between
+        CaseState previous = caseRepository.findStateById(caseId).orElse(null);
+        if (previous != null) {
+            if (expectedVersion != null && !expectedVersion.equals(previous.getVersion())) {
+                throw new OptimisticLockingFailureException(CASE_VERSION_CONFLICT);
+            }
+            LocalDateTime modifiedAt = LocalDateTime.now();
+            int updated = caseRepository.updateStatusWithVersion(caseId, status, previous.getVersion(), modifiedAt);
+            if (updated == 0 && expectedVersion == null) {
+                // another write got in between, the row is locked to read what this one replaces
+                previous = caseRepository.findStatesForUpdate(List.of(caseId)).stream().findFirst().orElse(null);
+                updated = previous == null ? 0
+                        : caseRepository.updateStatusWithVersion(caseId, status, previous.getVersion(), modifiedAt);
+            }
+            if (updated > 0) {
+                eventPublisher.publishEvent(CaseChangedEvent.statusChanged(previous.toCase(), status));
+                return true;
+            }
+        }
+        if (expectedVersion != null && caseRepository.existsById(caseId)) {
+            throw new OptimisticLockingFailureException(CASE_VERSION_CONFLICT);
+        }
+        if (archivedCaseRepository.existsById(caseId)) {
+            throw new CaseArchivedException(CASE_ARCHIVED);
+        }
+        return false;
+    }
+
+    @Cacheable(cacheNames = CASE_CACHE, key = "#caseId")
     @Override
     public Case findCase(Long caseId) {
-        return caseRepository.findById(caseId).orElseThrow(
-                ()-> new NoSuchElementException(NO_SUCH_ELEMENT_EXCEPTION));
+        // concurrent cache misses share IN queries, live cases first and then the archive
+        return caseLookupBatcher.find(caseId)
+                .orElseThrow(() -> new NoSuchElementException(NO_SUCH_ELEMENT_EXCEPTION));
     }
 
-    @Transactional(readOnly = true)
     @Override
     public List<Case> findAllCases() {
-        return caseRepository.findAll();
+        return coalesce(allCasesReads, ALL_CASES, () -> caseShards.scatter(shard -> caseRepository.findAll())
+                .stream()
+                .flatMap(List::stream)
+                .toList());
+    }
+
+    @Override
+    public CasePage findCases(String cursor, int size) {
+        validatePageSize(size);
+        Long afterCaseId = cursor == null ? 0L : CursorUtil.decodeLong(cursor);
+        return coalesce(pageReads, new PageKey(afterCaseId, size), () -> findCasesAfter(afterCaseId, size));
+    }
+
+    private CasePage findCasesAfter(Long afterCaseId, int size) {
+        // one extra row tells whether another page exists
+        List<Case> cases = CaseShards.mergeSorted(caseShards.scatter(shard ->
+                        caseRepository.findByCaseIdGreaterThanOrderByCaseIdAsc(afterCaseId, Limit.of(size + 1))),
+                BY_CASE_ID, size + 1);
+        if (cases.size() <= size) {
+            return new CasePage(cases, null);
+        }
+        List<Case> content = cases.subList(0, size);
+        return new CasePage(content, CursorUtil.encode(content.get(size - 1).getCaseId()));
+    }
+
+    @Override
+    public CasePage filterCases(CaseQuery query, String cursor, int size) {
+        validatePageSize(size);
+        FilterKey key = new FilterKey(query.getStatus(), query.getDueFrom(), query.getDueTo(),
+                query.getTitlePrefix(), query.getSortBy(), query.getDirection(), cursor, size);
+        return coalesce(filterReads, key, () -> filterCasesNow(query, cursor, size));
+    }
+
+    private CasePage filterCasesNow(CaseQuery query, String cursor, int size) {
+        Sort.Direction direction = Sort.Direction.fromOptionalString(query.getDirection())
+                .orElseThrow(() -> new InvalidRequestException(INVALID_DIRECTION));
+        boolean byDueDateTime = SORT_BY_DUE_DATE_TIME.equals(query.getSortBy());
+        if (!byDueDateTime && !SORT_BY_CASE_ID.equals(query.getSortBy())) {
+            throw new InvalidRequestException(INVALID_SORT);
+        }
+
+        Specification<Case> spec = Specification.allOf(hasStatus(query.getStatus()),
+                dueFrom(query.getDueFrom()), dueTo(query.getDueTo()),
+                titleStartsWith(query.getTitlePrefix()));
+        if (cursor != null && byDueDateTime) {
+            spec = spec.and(afterDueDateTime(cursor, direction));
+        } else if (cursor != null) {
+            spec = spec.and(afterCaseId(CursorUtil.decodeLong(cursor), direction));
+        }
+        Sort sort = byDueDateTime
+                ? Sort.by(direction, SORT_BY_DUE_DATE_TIME, SORT_BY_CASE_ID)
+                : Sort.by(direction, SORT_BY_CASE_ID);
+        Comparator<Case> order = byDueDateTime ? BY_DUE_DATE_TIME : BY_CASE_ID;
+
+        Specification<Case> filter = spec;
+        List<Case> cases = CaseShards.mergeSorted(caseShards.scatter(shard ->
+                        caseRepository.findBy(filter, q -> q.sortBy(sort).limit(size + 1).all())),
+                direction.isAscending() ? order : order.reversed(), size + 1);
+        if (cases.size() <= size) {
+            return new CasePage(cases, null);
+        }
+        List<Case> content = cases.subList(0, size);
+        Case last = content.get(size - 1);
+        String nextCursor = byDueDateTime
+                ? CursorUtil.encode(last.getDueDateTime(), last.getCaseId())
+                : CursorUtil.encode(last.getCaseId());
+        return new CasePage(content, nextCursor);
+    }
+
+    @Override
+    public CaseSearchPage searchCases(String text, String cursor, int size) {
+        validatePageSize(size);
+        if (text == null || text.isBlank()) {
+            throw new InvalidRequestException(EMPTY_SEARCH_TEXT);
+        }
+        int offset = searchOffset(cursor);
+        return coalesce(searchReads, new SearchKey(text, cursor, size), () -> searchCasesNow(text, offset, size));
+    }
+
+    private CaseSearchPage searchCasesNow(String text, int offset, int size) {
+
+        List<CaseSearchHit> hits;
+        if (caseShards.count() == 1) {
+            hits = caseJdbcRepository.search(text, offset, size + 1);
+        } else {
+            // relevance is only comparable after merging, each shard returns everything up to the page
+            List<CaseSearchHit> merged = CaseShards.mergeSorted(caseShards.scatter(shard ->
+                    caseJdbcRepository.search(text, 0, offset + size + 1)), BY_SCORE, offset + size + 1);
+            hits = merged.subList(Math.min(offset, merged.size()), merged.size());
+        }
+        if (hits.size() <= size) {
+            return new CaseSearchPage(hits, null);
+        }
+        return new CaseSearchPage(hits.subList(0, size), CursorUtil.encode(offset + size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllCases(Consumer<Case> consumer) {
+        caseShards.forEachShard(shard -> caseJdbcRepository.streamAll(consumer));
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CASE_CACHE, key = "#caseId")
     @Override
     public void deleteCase(Long caseId) {
-        caseRepository.deleteById(caseId);
+        caseShards.bind(caseId);
+        // read without a lock like a status change, the version the delete checks makes sure
+        // the case it reports is the one it removed
+        Optional<Case> previous = caseRepository.findById(caseId);
+        if (previous.isPresent() && caseRepository.deleteByCaseIdAndVersion(caseId, previous.get().getVersion()) == 0) {
+            previous = caseRepository.findAllForUpdate(List.of(caseId)).stream().findFirst();
+            previous.ifPresent(locked -> caseRepository.deleteByCaseId(caseId));
+        }
+        if (previous.isPresent()) {
+            eventPublisher.publishEvent(CaseChangedEvent.deleted(previous.get()));
+        } else if (archivedCaseRepository.deleteByCaseId(caseId) > 0) {
+            // an archived case no longer counts anywhere, only its deletion is recorded
+            eventPublisher.publishEvent(CaseChangedEvent.deleted(caseId));
+        }
+    }
+
+    private <V> V coalesce(SingleFlight<ReadKey, V> reads, Object key, Supplier<V> read) {
+        // the query goes where the reads of the first caller go, a caller pinned to the
+        // primary after its own write must not wait for one sent to a replica
+        ReadKey readKey = new ReadKey(key, ReadYourWritesFilter.isPinnedToPrimary());
+        return reads.execute(readKey, () -> readOnlyTransaction.execute(status -> read.get()));
+    }
+
+    private static Specification<Case> afterDueDateTime(String cursor, Sort.Direction direction) {
+        String[] position = CursorUtil.decode(cursor, 2);
+        try {
+            return CaseSpecifications.afterDueDateTime(LocalDateTime.parse(position[0]),
+                    Long.valueOf(position[1]), direction);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new InvalidRequestException(INVALID_CURSOR, ex);
+        }
+    }
+
+    /** The offset a search cursor carries, bounded so no page merges more than that many hits. */
+    private static int searchOffset(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        long offset = CursorUtil.decodeLong(cursor);
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new InvalidRequestException(INVALID_OFFSET);
+        }
+        return (int) offset;
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException(INVALID_PAGE_SIZE + MAX_PAGE_SIZE);
+        }
+    }
+
+    private record ReadKey(Object read, boolean primary) {
+    }
+
+    private record PageKey(Long afterCaseId, int size) {
+    }
+
+    private record FilterKey(String status, LocalDateTime dueFrom, LocalDateTime dueTo, String titlePrefix,
+                             String sortBy, String direction, String cursor, int size) {
+    }
+
+    private record SearchKey(String text, String cursor, int size) {
     }
 }
@@ -0,0 +1,173 @@
+package com.main.services.impl;
+
+import com.main.events.CaseChangedEvent;
+import com.main.models.Case;
+import com.main.models.CaseStatistics;
+import com.main.repository.CaseRepository;
+import com.main.services.CaseStatisticsService;
+import com.main.sharding.CaseShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps case counts in memory so a dashboard refresh never scans the table.
+ * Every committed write of this instance adjusts the count of the status and,
+ * for open cases, of the due date it affects, from the case as the write
+ * read it before changing it. The writes of other instances are picked up by
+ * a {@code GROUP BY} that reconciles the counts every
+ * {@code case.statistics.reconcile-interval}, checked every
+ * {@code case.statistics.check-interval}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CaseStatisticsServiceImpl implements CaseStatisticsService {
+
+    private final CaseRepository caseRepository;
+    private final CaseShards caseShards;
+
+    @Value("${case.deadline.closed-statuses:Completed,Closed}")
+    private Set<String> closedStatuses;
+
+    @Value("${case.statistics.reconcile-interval:PT5M}")
+    private Duration reconcileInterval;
+
+    private final Counters counters = new Counters();
+    // changes counted while a reconcile reads the database, null otherwise
+    private volatile Counters recording;
+    private volatile LocalDateTime reconciledAt;
+
+    @Override
+    public CaseStatistics getStatistics() {
+        if (reconciledAt == null) {
+            reconcile();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate sunday = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        Map<String, Long> byStatus = new TreeMap<>();
+        counters.byStatus.forEach((status, count) -> {
+            long sum = count.sum();
+            if (sum != 0) {
+                byStatus.put(status, sum);
+            }
+        });
+        return new CaseStatistics(byStatus.values().stream().mapToLong(Long::longValue).sum(), byStatus,
+                sum(counters.openByDueDate.headMap(today)),
+                sum(counters.openByDueDate.get(today)),
+                sum(counters.openByDueDate.subMap(today, true, sunday, true)),
+                reconciledAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCaseChanged(CaseChangedEvent event) {
+        Case previous = event.previous();
+        switch (event.type()) {
+            case CREATED -> count(event.current().getStatus(), event.current().getDueDateTime(), 1);
+            case STATUS_CHANGED -> {
+                count(previous.getStatus(), previous.getDueDateTime(), -1);
+                count(event.current().getStatus(), previous.getDueDateTime(), 1);
+            }
+            case DELETED, ARCHIVED -> {
+                // a case deleted from the archive was no longer counted
+                if (previous != null) {
+                    count(previous.getStatus(), previous.getDueDateTime(), -1);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${case.statistics.check-interval:PT5S}")
+    public void reconcileWhenDue() {
+        if (reconciledAt == null || reconciledAt.isBefore(LocalDateTime.now().minus(reconcileInterval))) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Sets the counts to those of the database plus the changes counted
+     * while it was read. A change committed just before the read but counted
+     * after it starts is counted twice until the next reconcile.
+     */
+    @Override
+    public synchronized void reconcile() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Counters during = new Counters();
+        recording = during;
+        try {
+            Counters database = new Counters();
+            caseShards.scatter(shard -> caseRepository.countByStatusAndDueDate()).stream()
+                    .flatMap(List::stream)
+                    .forEach(count -> database.add(count.getStatus(), count.getDueDate(),
+                            !closedStatuses.contains(count.getStatus()), count.getCount()));
+            correct(counters.byStatus, database.byStatus, during.byStatus);
+            correct(counters.openByDueDate, database.openByDueDate, during.openByDueDate);
+        } finally {
+            recording = null;
+        }
+        reconciledAt = startedAt;
+        log.debug("reconciled case statistics in {} ms",
+                Duration.between(startedAt, LocalDateTime.now()).toMillis());
+    }
+
+    private void count(String status, LocalDateTime dueDateTime, long delta) {
+        boolean open = !closedStatuses.contains(status);
+        LocalDate dueDate = dueDateTime.toLocalDate();
+        counters.add(status, dueDate, open, delta);
+        Counters during = recording;
+        if (during != null) {
+            during.add(status, dueDate, open, delta);
+        }
+    }
+
+    // adds the difference instead of replacing the adders, so changes counted meanwhile are kept
+    private static <K> void correct(Map<K, LongAdder> live, Map<K, LongAdder> database, Map<K, LongAdder> during) {
+        Set<K> keys = new HashSet<>(live.keySet());
+        keys.addAll(database.keySet());
+        keys.addAll(during.keySet());
+        for (K key : keys) {
+            long target = sum(database.get(key)) + sum(during.get(key));
+            LongAdder count = live.computeIfAbsent(key, k -> new LongAdder());
+            count.add(target - count.sum());
+        }
+    }
+
+    private static long sum(Map<?, LongAdder> counts) {
+        return counts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static long sum(LongAdder count) {
+        return count == null ? 0 : count.sum();
+    }
+
+    private static final class Counters {
+
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<LocalDate, LongAdder> openByDueDate = new ConcurrentSkipListMap<>();
+
+        void add(String status, LocalDate dueDate, boolean open, long delta) {
+            byStatus.computeIfAbsent(status, k -> new LongAdder()).add(delta);
+            if (open) {
+                openByDueDate.computeIfAbsent(dueDate, k -> new LongAdder()).add(delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.main.sharding;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Globally unique, time ordered case ids that do not depend on any one
+ * database, so a case keeps its id whichever shard stores it.
+ * <p>
+ * An id packs 41 bits of milliseconds since {@link #EPOCH}, a 5 bit worker
+ * id and a 7 bit sequence into 53 bits, which keeps it exact as a JSON
+ * number in JavaScript clients. Each running instance needs its own
+ * {@code case.id.worker-id}, there is no default: two instances on the same
+ * worker id would issue the same ids. When a worker issues more than 128 ids in a
+ * millisecond, or the clock steps back, ids continue from the last one
+ * issued instead of repeating.
+ */
+public final class CaseIdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    public static final int MAX_WORKER_ID = 31;
+    public static final String WORKER_ID_PROPERTY = "case.id.worker-id";
+
+    private static final int SEQUENCE_BITS = 7;
+    private static final int WORKER_BITS = 5;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = (1L << 41) - 1;
+
+    private static final Map<Integer, CaseIdGenerator> WORKERS = new ConcurrentHashMap<>();
+
+    private final long worker;
+    private final AtomicLong last = new AtomicLong();
+
+    private CaseIdGenerator(int workerId) {
+        this.worker = (long) workerId << SEQUENCE_BITS;
+    }
+
+    /**
+     * The generator of a worker. Everything issuing ids in this process for
+     * the worker must share it, or two of them could hand out the same id.
+     */
+    public static CaseIdGenerator forWorker(int workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("case.id.worker-id must be between 0 and " + MAX_WORKER_ID);
+        }
+        return WORKERS.computeIfAbsent(workerId, CaseIdGenerator::new);
+    }
+
+    /** The generator of the worker configured in {@value #WORKER_ID_PROPERTY}, which must be set. */
+    public static CaseIdGenerator forConfiguredWorker(Integer workerId) {
+        if (workerId == null) {
+            throw new IllegalStateException(WORKER_ID_PROPERTY + " is not set, give every running instance "
+                    + "its own worker id between 0 and " + MAX_WORKER_ID);
+        }
+        return forWorker(workerId);
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long now = System.currentTimeMillis() - EPOCH.toEpochMilli();
+            long previousTimestamp = previous >>> TIMESTAMP_SHIFT;
+            long previousSequence = previous & MAX_SEQUENCE;
+
+            long next;
+            if (now > previousTimestamp) {
+                next = compose(now, 0);
+            } else if (previousSequence < MAX_SEQUENCE) {
+                next = compose(previousTimestamp, previousSequence + 1);
+            } else {
+                next = compose(previousTimestamp + 1, 0);
+            }
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /** When the id was issued, to the millisecond. */
+    public static Instant timestampOf(long caseId) {
+        return EPOCH.plusMillis(caseId >>> TIMESTAMP_SHIFT);
+    }
+
+    /** The lowest id issued at {@code time} or later, by any worker. */
+    public static long firstIdAt(Instant time) {
+        return Math.max(0L, time.toEpochMilli() - EPOCH.toEpochMilli()) << TIMESTAMP_SHIFT;
+    }
+
+    public int workerId() {
+        return (int) (worker >>> SEQUENCE_BITS);
+    }
+
+    public static int workerOf(long caseId) {
+        return (int) ((caseId >>> SEQUENCE_BITS) & MAX_WORKER_ID);
+    }
+
+    private long compose(long timestamp, long sequence) {
+        if (timestamp > MAX_TIMESTAMP) {
+            throw new IllegalStateException("case id timestamp is exhausted");
+        }
+        return timestamp << TIMESTAMP_SHIFT | worker | sequence;
+    }
+}
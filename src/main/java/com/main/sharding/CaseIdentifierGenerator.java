@@ -0,0 +1,38 @@
+package com.main.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate side of {@link GeneratedCaseId}. Hibernate creates it through
+ * the Spring bean container, so it shares the {@link CaseIdGenerator} bean
+ * with the services.
+ */
+public class CaseIdentifierGenerator implements BeforeExecutionGenerator {
+
+    private final CaseIdGenerator ids;
+
+    public CaseIdentifierGenerator(CaseIdGenerator ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return currentValue != null ? currentValue : ids.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
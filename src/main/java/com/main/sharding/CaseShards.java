@@ -0,0 +1,227 @@
+package com.main.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Places cases on shards and runs work against them.
+ * <p>
+ * A case id hashes to one of {@code bucketCount} buckets and each bucket is
+ * assigned to a shard, by default round robin. Resharding moves whole
+ * buckets: copy the rows of a bucket to the new shard, then point the bucket
+ * there in {@code case.shards.buckets}. Case ids never change.
+ * <p>
+ * The shard of the current thread is what {@code ShardRoutingDataSource}
+ * connects to. With a single shard every method runs the work inline and
+ * nothing is routed.
+ */
+public class CaseShards {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final int[] bucketShards;
+
+    /**
+     * @param shardCount the number of shards, shard 0 being the default data source
+     * @param bucketCount the number of buckets, fixed for the lifetime of the data
+     * @param movedBuckets buckets assigned to another shard than round robin would
+     */
+    public CaseShards(int shardCount, int bucketCount, Map<Integer, Integer> movedBuckets) {
+        if (shardCount < 1 || bucketCount < shardCount) {
+            throw new IllegalArgumentException("Need at least one shard and one bucket per shard");
+        }
+        this.shardCount = shardCount;
+        this.bucketShards = new int[bucketCount];
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketShards[bucket] = bucket % shardCount;
+        }
+        movedBuckets.forEach((bucket, shard) -> {
+            if (bucket < 0 || bucket >= bucketCount || shard < 0 || shard >= shardCount) {
+                throw new IllegalArgumentException("Bucket " + bucket + " cannot move to shard " + shard);
+            }
+            bucketShards[bucket] = shard;
+        });
+    }
+
+    public static CaseShards single() {
+        return new CaseShards(1, 1, Map.of());
+    }
+
+    /** The shard bound to the current thread, {@code null} for the default one. */
+    public static Integer currentShard() {
+        return CURRENT.get();
+    }
+
+    public int count() {
+        return shardCount;
+    }
+
+    public int bucketOf(long caseId) {
+        // ids are time ordered, mix the bits so consecutive ids spread out
+        long hash = caseId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), bucketShards.length);
+    }
+
+    public int shardOf(long caseId) {
+        return shardCount == 1 ? 0 : bucketShards[bucketOf(caseId)];
+    }
+
+    /**
+     * Sends the rest of the current transaction to the shard of the case.
+     * Must come before the first statement of the transaction, and a
+     * transaction cannot touch cases of two shards.
+     */
+    public void bind(long caseId) {
+        if (shardCount == 1) {
+            return;
+        }
+        int shard = shardOf(caseId);
+        Integer bound = CURRENT.get();
+        if (bound != null) {
+            if (bound != shard) {
+                throw new IllegalStateException("Transaction is bound to shard " + bound
+                        + ", case " + caseId + " is on shard " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Binding case " + caseId + " to its shard needs a transaction");
+        }
+        CURRENT.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs work, which starts its own transactions, against one shard.
+     * Must not be called inside a transaction, whose connection may
+     * already point at another shard.
+     */
+    public void onShard(int shard, Runnable work) {
+        if (shardCount == 1) {
+            work.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch shards inside a transaction");
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            work.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a query on every shard in parallel and returns the results in
+     * shard order. Each shard gets a virtual thread of its own, so it runs
+     * outside any transaction of the caller.
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        if (shardCount == 1) {
+            return List.of(query.apply(0));
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                futures.add(executor.submit(() -> {
+                    CURRENT.set(target);
+                    return query.apply(target);
+                }));
+            }
+            List<T> results = new ArrayList<>(shardCount);
+            for (Future<T> future : futures) {
+                results.add(join(future));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Runs work on one shard after the other, each on a thread of its own,
+     * for callers that must not run concurrently, such as a stream to a client.
+     */
+    public void forEachShard(IntConsumer work) {
+        if (shardCount == 1) {
+            work.accept(0);
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                join(executor.submit(() -> {
+                    CURRENT.set(target);
+                    work.accept(target);
+                    return null;
+                }));
+            }
+        }
+    }
+
+    /** Merges lists sorted by {@code order} into the first {@code limit} elements. */
+    public static <T> List<T> mergeSorted(List<List<T>> sorted, Comparator<? super T> order, int limit) {
+        if (sorted.size() == 1) {
+            List<T> only = sorted.get(0);
+            return only.size() <= limit ? only : only.subList(0, limit);
+        }
+        record Head<T>(T value, int list, int index) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value(), b.value()));
+        for (int list = 0; list < sorted.size(); list++) {
+            if (!sorted.get(list).isEmpty()) {
+                heads.add(new Head<>(sorted.get(list).get(0), list, 0));
+            }
+        }
+        List<T> merged = new ArrayList<>(limit);
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value());
+            List<T> source = sorted.get(head.list());
+            if (head.index() + 1 < source.size()) {
+                heads.add(new Head<>(source.get(head.index() + 1), head.list(), head.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shard", ex);
+        }
+    }
+}
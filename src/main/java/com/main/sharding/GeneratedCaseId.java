@@ -0,0 +1,19 @@
+package com.main.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Assigns a {@link CaseIdGenerator} id on persist, unless the id was set
+ * before, as the services do to pick the shard of a new case.
+ */
+@IdGeneratorType(CaseIdentifierGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface GeneratedCaseId {
+}
@@ -0,0 +1,32 @@
+package com.main.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.main.models.CaseOutboxEntry;
+
+import java.io.IOException;
+
+/**
+ * Writes outbox entries as the newline terminated JSON lines of the change
+ * feed. The stored payload is copied as is instead of being parsed again.
+ */
+public final class CaseChangeUtil {
+
+    private CaseChangeUtil() {
+    }
+
+    public static void writeLine(JsonGenerator generator, CaseOutboxEntry change) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("offset", change.getId());
+        generator.writeStringField("type", change.getChangeType().name());
+        generator.writeNumberField("caseId", change.getCaseId());
+        generator.writeStringField("occurredAt", change.getOccurredAt().toString());
+        generator.writeFieldName("case");
+        if (change.getPayload() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeRawValue(change.getPayload());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,80 @@
+package com.main.utils;
+
+import com.main.exception.InvalidRequestException;
+import com.main.models.Case;
+import org.springframework.http.ResponseEntity;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.main.constants.ErrorsConstant.INVALID_IF_MATCH;
+
+/**
+ * Builds and reads the entity tags of cases. A case is tagged with its
+ * version, which every write increments, so the tag is strong: equal tags
+ * mean the same case. A list of cases is tagged with the change feed
+ * offsets, which move with every write to any case.
+ */
+public final class CaseETagUtil {
+
+    public static final String ANY = "*";
+
+    private static final String QUOTE = "\"";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String OFFSETS_PREFIX = "o";
+    private static final String OFFSET_SEPARATOR = ".";
+
+    private CaseETagUtil() {
+    }
+
+    public static String of(Case caseDetails) {
+        return ofVersion(caseDetails.getVersion());
+    }
+
+    public static String ofVersion(Long version) {
+        return QUOTE + version + QUOTE;
+    }
+
+    public static String ofOffsets(List<Long> offsets) {
+        return offsets.stream().map(String::valueOf)
+                .collect(Collectors.joining(OFFSET_SEPARATOR, QUOTE + OFFSETS_PREFIX, QUOTE));
+    }
+
+    /**
+     * The version a case tag stands for, or null for a tag no case can carry.
+     * A weak tag is read like a strong one: the server compresses larger
+     * responses and marks their tags weak, but the version stays exact.
+     */
+    public static Long versionOf(String etag) {
+        String tag = etag.trim();
+        if (tag.contains(",")) {
+            throw new InvalidRequestException(INVALID_IF_MATCH);
+        }
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() < 3 || !tag.startsWith(QUOTE) || !tag.endsWith(QUOTE)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Sets ETag and, when known, Last-Modified of the case. For a GET both
+     * controllers answer 304 on their own when the request preconditions
+     * match these headers.
+     */
+    public static ResponseEntity.BodyBuilder tag(ResponseEntity.BodyBuilder response, Case caseDetails) {
+        response.eTag(of(caseDetails));
+        // null for a case written before it was tracked
+        if (caseDetails.getLastModified() != null) {
+            response.lastModified(caseDetails.getLastModified().atZone(ZoneId.systemDefault()).toInstant());
+        }
+        return response;
+    }
+}
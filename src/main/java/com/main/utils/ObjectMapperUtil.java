@@ -0,0 +1,26 @@
+package com.main.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Configures every mapper of the application, whatever its format, the
+ * same way so a case looks alike in JSON, CBOR and Smile.
+ */
+public final class ObjectMapperUtil {
+
+    private ObjectMapperUtil() {
+    }
+
+    /**
+     * Blackbird generates the property accessors once per type when the
+     * serializer is built, instead of calling getters and setters by
+     * reflection for every case written or read.
+     */
+    public static <M extends ObjectMapper> M configure(M mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(new BlackbirdModule());
+        return mapper;
+    }
+}
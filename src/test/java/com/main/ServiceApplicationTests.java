@@ -3,7 +3,7 @@ package com.main;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "case.id.worker-id=0")
 class ServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,125 @@
+package com.main.archive;
+
+import com.main.events.CaseChangeType;
+import com.main.events.CaseChangedEvent;
+import com.main.models.ArchivedCase;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+    private static final Set<String> STATUSES = Set.of("Closed");
+
+    @Mock
+    private CaseRepository caseRepository;
+
+    @Mock
+    private ArchivedCaseRepository archivedCaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CaseArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new CaseArchiver(caseRepository, archivedCaseRepository,
+                new TransactionTemplate(transactionManager), eventPublisher, CaseShards.single(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archiver, "statuses", STATUSES);
+        ReflectionTestUtils.setField(archiver, "minAge", Duration.ofDays(90));
+        ReflectionTestUtils.setField(archiver, "overdueAge", Duration.ofDays(365));
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        ReflectionTestUtils.setField(archiver, "maxBatches", 10);
+        ReflectionTestUtils.setField(archiver, "pause", Duration.ZERO);
+    }
+
+    @Test
+    void testArchiveMovesBatchesUntilNothingQualifies() {
+        when(caseRepository.findCaseIdsWithStatusDueBefore(STATUSES, NOW.minusDays(90), Limit.of(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(caseRepository.findCaseIdsDueBefore(NOW.minusDays(365), Limit.of(2)))
+                .thenReturn(List.of(), List.of());
+        when(caseRepository.deleteArchivedByCaseIds(anyList())).thenReturn(2, 1);
+
+        assertEquals(3, archiver.archive(NOW));
+
+        verify(archivedCaseRepository).copyFromCases(List.of(1L, 2L), STATUSES, NOW.minusDays(90),
+                NOW.minusDays(365), NOW);
+        verify(archivedCaseRepository).copyFromCases(eq(List.of(3L)), eq(STATUSES), any(), any(), eq(NOW));
+        verify(caseRepository, times(2)).findCaseIdsWithStatusDueBefore(any(), any(), any());
+    }
+
+    @Test
+    void testArchiveUnitesBothConditionsIntoOneBatch() {
+        when(caseRepository.findCaseIdsWithStatusDueBefore(any(), any(), any())).thenReturn(List.of(1L), List.of());
+        when(caseRepository.findCaseIdsDueBefore(any(), any())).thenReturn(List.of(1L, 4L), List.of(5L, 6L), List.of());
+        when(caseRepository.deleteArchivedByCaseIds(anyList())).thenReturn(2);
+
+        assertEquals(4, archiver.archive(NOW));
+
+        verify(archivedCaseRepository).copyFromCases(eq(List.of(1L, 4L)), any(), any(), any(), any());
+        verify(archivedCaseRepository).copyFromCases(eq(List.of(5L, 6L)), any(), any(), any(), any());
+        verify(caseRepository, times(3)).findCaseIdsDueBefore(any(), any());
+    }
+
+    @Test
+    void testArchiveStopsAfterMaxBatches() {
+        ReflectionTestUtils.setField(archiver, "maxBatches", 1);
+        when(caseRepository.findCaseIdsWithStatusDueBefore(any(), any(), any())).thenReturn(List.of(1L, 2L));
+        when(caseRepository.findCaseIdsDueBefore(any(), any())).thenReturn(List.of());
+        when(caseRepository.deleteArchivedByCaseIds(anyList())).thenReturn(2);
+
+        assertEquals(2, archiver.archive(NOW));
+
+        verify(caseRepository, times(1)).findCaseIdsWithStatusDueBefore(any(), any(), any());
+    }
+
+    @Test
+    void testArchivePublishesAnArchivedChangeForEveryCopiedCase() {
+        when(caseRepository.findCaseIdsWithStatusDueBefore(any(), any(), any())).thenReturn(List.of(1L, 2L), List.of());
+        when(caseRepository.findCaseIdsDueBefore(any(), any())).thenReturn(List.of());
+        ArchivedCase copied = new ArchivedCase(2L, "Sample", "desc", "Closed", NOW.minusDays(100), 3L,
+                NOW.minusDays(100), NOW);
+        when(archivedCaseRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(copied));
+        when(caseRepository.deleteArchivedByCaseIds(List.of(1L, 2L))).thenReturn(1);
+
+        assertEquals(1, archiver.archive(NOW));
+
+        verify(caseRepository).findCaseIdsForUpdate(List.of(1L, 2L));
+        ArgumentCaptor<CaseChangedEvent> event = ArgumentCaptor.forClass(CaseChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(CaseChangeType.ARCHIVED, event.getValue().type());
+        assertEquals(2L, event.getValue().caseId());
+        assertEquals("Closed", event.getValue().previous().getStatus());
+    }
+}
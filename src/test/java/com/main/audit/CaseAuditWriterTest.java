@@ -0,0 +1,154 @@
+package com.main.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.ServiceApplication;
+import com.main.events.CaseChangedEvent;
+import com.main.models.Case;
+import com.main.models.CaseAuditEntry;
+import com.main.models.CaseFieldChange;
+import com.main.models.CaseState;
+import com.main.repository.CaseAuditRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseAuditWriterTest {
+
+    private static final LocalDateTime DUE = LocalDateTime.of(2026, 1, 31, 12, 0);
+
+    @Mock
+    private CaseAuditRepository auditRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CaseAuditWriter auditWriter;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        auditWriter.stop();
+    }
+
+    @Test
+    void changesHoldTheFieldsBeforeAndAfter() {
+        auditWriter = writer(AuditDurability.BUFFERED);
+        Case previous = new Case(1L, "Title", null, "Open", DUE);
+
+        Map<String, CaseFieldChange> created = CaseAuditWriter.changes(CaseChangedEvent.created(previous));
+        Map<String, CaseFieldChange> changed = CaseAuditWriter.changes(CaseChangedEvent.statusChanged(previous, "Closed"));
+        Map<String, CaseFieldChange> stateChanged = CaseAuditWriter.changes(CaseChangedEvent.statusChanged(
+                new CaseState(1L, "Open", DUE, 0L).toCase(), "Closed"));
+        Map<String, CaseFieldChange> deleted = CaseAuditWriter.changes(CaseChangedEvent.deleted(previous));
+
+        assertEquals(List.of("title", "status", "dueDateTime"), List.copyOf(created.keySet()));
+        assertNull(created.get("title").getFrom());
+        assertEquals(DUE.toString(), created.get("dueDateTime").getTo());
+        assertEquals("Open", changed.get("status").getFrom());
+        assertEquals("Closed", changed.get("status").getTo());
+        assertEquals(1, changed.size());
+        assertEquals("Open", stateChanged.get("status").getFrom());
+        assertEquals("Title", deleted.get("title").getFrom());
+        assertNull(deleted.get("title").getTo());
+    }
+
+    @Test
+    void transactionalEntriesAreInsertedAsOneBatchBeforeCommit() {
+        auditWriter = writer(AuditDurability.TRANSACTIONAL);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        Case previous = new Case(1L, "Title", null, "Open", DUE);
+        auditWriter.onCaseChanged(CaseChangedEvent.created(previous));
+        auditWriter.onCaseChanged(CaseChangedEvent.statusChanged(previous, "Closed"));
+        verifyNoInteractions(auditRepository);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        verify(auditRepository).insertAll(argThat(entries -> entries.size() == 2
+                && entries.get(1).getChanges().equals("{\"status\":{\"from\":\"Open\",\"to\":\"Closed\"}}")));
+    }
+
+    @Test
+    void bufferedEntriesAreWrittenAfterCommitInBatches() throws Exception {
+        List<CaseAuditEntry> written = new CopyOnWriteArrayList<>();
+        AtomicInteger batches = new AtomicInteger();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            batches.incrementAndGet();
+            return null;
+        }).when(auditRepository).insertAll(anyList());
+        auditWriter = writer(AuditDurability.BUFFERED);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        for (long caseId = 1; caseId <= 25; caseId++) {
+            auditWriter.onCaseChanged(CaseChangedEvent.deleted(caseId));
+        }
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.beforeCommit(false));
+        Thread.sleep(50);
+        assertTrue(written.isEmpty());
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        auditWriter.stop();
+
+        assertEquals(25, written.size());
+        assertEquals(1L, written.get(0).getCaseId());
+        assertEquals(3, batches.get());
+    }
+
+    @Test
+    void failedBatchIsRetried() throws Exception {
+        List<CaseAuditEntry> written = new CopyOnWriteArrayList<>();
+        doThrow(new IllegalStateException("database unavailable"))
+                .doAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return null;
+                })
+                .when(auditRepository).insertAll(anyList());
+        auditWriter = writer(AuditDurability.BUFFERED);
+
+        auditWriter.onCaseChanged(CaseChangedEvent.deleted(1L));
+        auditWriter.stop();
+
+        assertEquals(1, written.size());
+        assertEquals(1, meterRegistry.get("case.audit.failures").counter().count());
+        assertEquals(1, meterRegistry.get("case.audit.written").counter().count());
+    }
+
+    private CaseAuditWriter writer(AuditDurability durability) {
+        ObjectMapper objectMapper = new ServiceApplication().objectMapper();
+        CaseAuditWriter writer = new CaseAuditWriter(auditRepository, CaseShards.single(), objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(writer, "durability", durability);
+        ReflectionTestUtils.setField(writer, "bufferSize", 16);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(writer, "initialBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(writer, "maxBackoff", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(writer, "shutdownTimeout", Duration.ofSeconds(5));
+        writer.start();
+        return writer;
+    }
+}
@@ -0,0 +1,135 @@
+package com.main.coalescing;
+
+import com.main.config.datasource.ReadYourWritesFilter;
+import com.main.models.ArchivedCase;
+import com.main.models.Case;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseRepository;
+import com.main.sharding.CaseShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseLookupBatcherTest {
+
+    @Mock
+    private CaseRepository caseRepository;
+
+    @Mock
+    private ArchivedCaseRepository archivedCaseRepository;
+
+    private CaseLookupBatcher caseLookupBatcher;
+
+    @BeforeEach
+    void setUp() {
+        caseLookupBatcher = new CaseLookupBatcher(caseRepository, archivedCaseRepository, CaseShards.single(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(caseLookupBatcher, "batchWindow", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(caseLookupBatcher, "maxBatchSize", 3);
+    }
+
+    @Test
+    void lookupsDuringAQueryAreSentTogether() throws Exception {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Long>> queries = new ArrayList<>();
+        when(caseRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Long> caseIds = new ArrayList<>();
+            ids.forEach(caseIds::add);
+            synchronized (queries) {
+                queries.add(caseIds);
+            }
+            if (caseIds.contains(1L)) {
+                querying.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return caseIds.stream().map(CaseLookupBatcherTest::createCase).toList();
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<Case>> first = executor.submit(() -> caseLookupBatcher.find(1L));
+            assertTrue(querying.await(5, TimeUnit.SECONDS));
+            List<Future<Optional<Case>>> batched = new ArrayList<>();
+            for (long caseId : new long[]{2L, 3L, 4L, 1L}) {
+                batched.add(executor.submit(() -> caseLookupBatcher.find(caseId)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(1L, first.get().orElseThrow().getCaseId());
+            assertEquals(List.of(2L, 3L, 4L, 1L), batched.stream()
+                    .map(future -> join(future).orElseThrow().getCaseId())
+                    .toList());
+        }
+        // the full batch of three went out without waiting for the window
+        assertEquals(2, queries.size());
+        assertEquals(Set.of(2L, 3L, 4L), Set.copyOf(queries.get(1)));
+    }
+
+    @Test
+    void lookupsReadThePrimaryWhateverTheClient() throws Exception {
+        List<Boolean> pinnedQueries = new ArrayList<>();
+        when(caseRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            pinnedQueries.add(ReadYourWritesFilter.isPinnedToPrimary());
+            return List.of(createCase(7L));
+        });
+        MockHttpServletRequest withoutWrite = new MockHttpServletRequest("GET", "/case/find-case/7");
+
+        new ReadYourWritesFilter(Duration.ofSeconds(10)).doFilter(withoutWrite, new MockHttpServletResponse(),
+                (req, res) -> {
+                    assertTrue(caseLookupBatcher.find(7L).isPresent());
+                    assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+                });
+
+        assertEquals(List.of(true), pinnedQueries);
+    }
+
+    @Test
+    void caseNotFoundIsLookedUpInTheArchive() {
+        when(caseRepository.findAllById(List.of(5L))).thenReturn(List.of());
+        when(archivedCaseRepository.findAllById(Set.of(5L))).thenReturn(List.of(new ArchivedCase(5L, "Sample",
+                "Case description", "Closed", LocalDateTime.now().minusYears(1), 2L, null, LocalDateTime.now())));
+
+        assertEquals("Closed", caseLookupBatcher.find(5L).orElseThrow().getStatus());
+        when(archivedCaseRepository.findAllById(Set.of(6L))).thenReturn(List.of());
+        when(caseRepository.findAllById(List.of(6L))).thenReturn(List.of());
+        assertTrue(caseLookupBatcher.find(6L).isEmpty());
+    }
+
+    private static Case createCase(Long caseId) {
+        return new Case(caseId, "Sample", "Case description", "Pending", LocalDateTime.now().plusDays(1), 0L);
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
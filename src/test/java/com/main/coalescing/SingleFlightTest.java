@@ -0,0 +1,74 @@
+package com.main.coalescing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallsForOneKeyShareOneRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("page", () -> {
+                running.countDown();
+                await(release);
+                return runs.incrementAndGet();
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> singleFlight.execute("page", runs::incrementAndGet));
+            Future<Integer> other = executor.submit(() -> singleFlight.execute("other", () -> 42));
+            assertEquals(42, other.get());
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(1, first.get());
+            assertEquals(1, second.get());
+        }
+        assertEquals(1, runs.get());
+        assertEquals(2, singleFlight.execute("page", runs::incrementAndGet));
+    }
+
+    @Test
+    void failureReachesEveryWaiterAndIsNotKept() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> first = executor.submit(() -> singleFlight.execute("page", () -> {
+                running.countDown();
+                await(release);
+                throw new IllegalArgumentException("bad page");
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> singleFlight.execute("page", () -> 1));
+            Thread.sleep(50);
+            release.countDown();
+
+            Exception failure = assertThrows(Exception.class, second::get);
+            assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+            assertThrows(Exception.class, first::get);
+        }
+        assertEquals(7, singleFlight.execute("page", () -> 7));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.main.config.codec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+
+import static com.main.constants.CommonConstant.CBOR;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VaryAcceptInterceptorTest {
+
+    private final VaryAcceptInterceptor interceptor = new VaryAcceptInterceptor();
+
+    @Test
+    void negotiatedResponseVariesByAccept() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/case/find-case/1");
+        request.setAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE,
+                Set.of(MediaType.APPLICATION_JSON, MediaType.valueOf(CBOR)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+
+        assertEquals(HttpHeaders.ACCEPT, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void singleFormatResponseDoesNotVary() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/case/changes");
+        request.setAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, Set.of(MediaType.APPLICATION_JSON));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+
+        assertNull(response.getHeader(HttpHeaders.VARY));
+    }
+}
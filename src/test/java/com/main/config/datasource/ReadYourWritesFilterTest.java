@@ -0,0 +1,63 @@
+package com.main.config.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.main.config.datasource.ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(10));
+
+    @Test
+    void writeSetsPrimaryCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("PATCH", "/case/update-case/1/Completed"), response,
+                (req, res) -> { });
+
+        Cookie cookie = response.getCookie(PRIMARY_UNTIL_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+    }
+
+    @Test
+    void readWithoutCookieIsNotPinned() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean(true);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/case/find-cases"), response,
+                (req, res) -> pinned.set(ReadYourWritesFilter.isPinnedToPrimary()));
+
+        assertFalse(pinned.get());
+        assertNull(response.getCookie(PRIMARY_UNTIL_COOKIE));
+    }
+
+    @Test
+    void readWithExpiredCookieIsNotPinned() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/case/find-cases");
+        request.setCookies(new Cookie(PRIMARY_UNTIL_COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+        AtomicBoolean pinned = new AtomicBoolean(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> pinned.set(ReadYourWritesFilter.isPinnedToPrimary()));
+
+        assertFalse(pinned.get());
+        assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+    }
+
+    @Test
+    void readOnPrimaryIsPinnedOnlyWhileItRuns() {
+        assertTrue(ReadYourWritesFilter.onPrimary(ReadYourWritesFilter::isPinnedToPrimary));
+        assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+    }
+}
@@ -0,0 +1,131 @@
+package com.main.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SHOW REPLICA STATUS";
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+        properties.setLagQuery(LAG_QUERY);
+        properties.setLagColumn(LAG_COLUMN);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void readGoesToReplica() throws Exception {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void readFallsBackToPrimaryWhenReplicaLags() throws Exception {
+        Connection checkConnection = replicaReporting(30L);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        routingDataSource.checkReplicas();
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica, times(1)).getConnection();
+        verify(checkConnection).close();
+    }
+
+    @Test
+    void readFallsBackToPrimaryWhenReplicationStopped() throws Exception {
+        replicaReporting(null);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        routingDataSource.checkReplicas();
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void unreachableReplicaIsSkippedUntilHealthy() throws Exception {
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void readAfterOwnWriteGoesToPrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/case/find-cases");
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE,
+                String.valueOf(System.currentTimeMillis() + 10_000)));
+        AtomicReference<Connection> connection = new AtomicReference<>();
+
+        new ReadYourWritesFilter(Duration.ofSeconds(10)).doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> {
+                    try {
+                        connection.set(routingDataSource.getConnection());
+                    } catch (SQLException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+
+        assertSame(primaryConnection, connection.get());
+        verifyNoInteractions(replica);
+    }
+
+    private Connection replicaReporting(Long lagSeconds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(lagSeconds == null ? 0 : lagSeconds);
+        when(resultSet.wasNull()).thenReturn(lagSeconds == null);
+        return connection;
+    }
+}
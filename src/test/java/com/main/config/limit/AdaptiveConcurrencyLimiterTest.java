@@ -0,0 +1,121 @@
+package com.main.config.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.main.config.limit.AdaptiveConcurrencyLimiter.Priority.BULK;
+import static com.main.config.limit.AdaptiveConcurrencyLimiter.Priority.POINT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LimitProperties properties = new LimitProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+        properties.setLatencyTarget(Duration.ofSeconds(10));
+        properties.setMaxWait(Duration.ofMillis(1));
+        properties.setMaxQueue(5);
+    }
+
+    @Test
+    void bulkRequestsOnlyGetTheirShare() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire(BULK).orElseThrow());
+        }
+
+        assertTrue(limiter.tryAcquire(BULK).isEmpty());
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire(POINT).orElseThrow());
+        }
+        assertTrue(limiter.tryAcquire(POINT).isEmpty());
+        assertEquals(1, meterRegistry.get("case.limit.rejected").tag("priority", "bulk").counter().count());
+        assertEquals(1, meterRegistry.get("case.limit.rejected").tag("priority", "point").counter().count());
+
+        permits.get(0).release(false);
+        assertTrue(limiter.tryAcquire(POINT).isPresent());
+    }
+
+    @Test
+    void fastRequestsNearTheLimitRaiseIt() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        for (int round = 0; round < 30; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.limit(); i++) {
+                permits.add(limiter.tryAcquire(POINT).orElseThrow());
+            }
+            permits.forEach(permit -> permit.release(false));
+        }
+
+        assertTrue(limiter.limit() > 10);
+        assertEquals(limiter.limit(), meterRegistry.get("case.limit.limit").gauge().value());
+        assertEquals(0, meterRegistry.get("case.limit.in.flight").gauge().value());
+    }
+
+    @Test
+    void slowOrFailedRequestsShrinkItOncePerGeneration() throws Exception {
+        properties.setLatencyTarget(Duration.ZERO);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire(POINT).orElseThrow();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire(POINT).orElseThrow();
+        Thread.sleep(1);
+        first.release(false);
+        second.release(false);
+        assertEquals(9, limiter.limit());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(POINT).orElseThrow().release(true);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void slowOrFailedBulkRequestsLeaveTheLimit() throws Exception {
+        properties.setLatencyTarget(Duration.ZERO);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        AdaptiveConcurrencyLimiter.Permit slow = limiter.tryAcquire(BULK).orElseThrow();
+        Thread.sleep(1);
+        slow.release(false);
+        limiter.tryAcquire(BULK).orElseThrow().release(true);
+
+        assertEquals(10, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void pointRequestWaitsForASlot() throws Exception {
+        properties.setInitialLimit(2);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.tryAcquire(POINT).orElseThrow();
+        limiter.tryAcquire(POINT).orElseThrow();
+
+        Thread waiter = Thread.ofVirtual().start(() -> limiter.tryAcquire(POINT).orElseThrow());
+        while (limiter.queued() == 0) {
+            Thread.sleep(1);
+        }
+        held.release(false);
+        waiter.join(5000);
+
+        assertEquals(0, limiter.queued());
+        assertEquals(2, limiter.inFlight());
+        Optional<AdaptiveConcurrencyLimiter.Permit> rejected = limiter.tryAcquire(BULK);
+        assertTrue(rejected.isEmpty());
+    }
+}
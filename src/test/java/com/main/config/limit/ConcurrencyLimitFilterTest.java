@@ -0,0 +1,69 @@
+package com.main.config.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.main.constants.ErrorsConstant.SERVICE_SATURATED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTest {
+
+    private final LimitProperties properties = new LimitProperties();
+    private final AdaptiveConcurrencyLimiter limiter = limiter();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, properties);
+
+    @Test
+    void saturatedRequestGets503() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.POINT).orElseThrow();
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger served = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/case/find-case/1"), response,
+                (req, res) -> served.incrementAndGet());
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(SERVICE_SATURATED, response.getContentAsString());
+        assertEquals(0, served.get());
+    }
+
+    @Test
+    void servedRequestFreesItsSlot() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/case/find-all-cases"), new MockHttpServletResponse(),
+                (req, res) -> inFlight.set(limiter.inFlight()));
+
+        assertEquals(1, inFlight.get());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void streamsAndOtherPathsAreNotLimited() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire(AdaptiveConcurrencyLimiter.Priority.POINT).orElseThrow();
+        }
+        AtomicInteger served = new AtomicInteger();
+
+        for (String path : new String[]{"/case/changes", "/actuator/health"}) {
+            filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(),
+                    (req, res) -> served.incrementAndGet());
+        }
+
+        assertEquals(2, served.get());
+    }
+
+    private AdaptiveConcurrencyLimiter limiter() {
+        properties.setInitialLimit(2);
+        properties.setMinLimit(2);
+        properties.setMaxQueue(0);
+        return new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+    }
+}
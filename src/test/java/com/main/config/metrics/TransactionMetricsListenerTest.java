@@ -0,0 +1,49 @@
+package com.main.config.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import static com.main.config.metrics.TransactionMetricsListener.TRANSACTIONS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TransactionMetricsListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionMetricsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new TransactionMetricsListener(meterRegistry);
+    }
+
+    @Test
+    void commitIsTimedByOutcome() {
+        SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+        listener.afterBegin(transaction, null);
+        listener.afterCommit(transaction, null);
+
+        assertEquals(1, meterRegistry.get(TRANSACTIONS).tag("outcome", "commit")
+                .tag("read.only", "false").timer().count());
+    }
+
+    @Test
+    void rollbackIsTimedByOutcome() {
+        SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+        listener.afterBegin(transaction, null);
+        listener.afterRollback(transaction, null);
+
+        assertEquals(1, meterRegistry.get(TRANSACTIONS).tag("outcome", "rollback").timer().count());
+        assertNull(meterRegistry.find(TRANSACTIONS).tag("outcome", "commit").timer());
+    }
+
+    @Test
+    void commitWithoutBeginIsNotTimed() {
+        listener.afterCommit(new SimpleTransactionStatus(), null);
+
+        assertNull(meterRegistry.find(TRANSACTIONS).timer());
+    }
+}
@@ -0,0 +1,73 @@
+package com.main.config.startup;
+
+import com.main.audit.CaseAuditWriter;
+import com.main.config.swagger.OpeApiConfig;
+import com.main.outbox.CaseOutboxRelay;
+import com.main.scheduler.CaseDeadlineScheduler;
+import com.main.services.impl.CaseStatisticsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.configuration.SpringDocConfiguration;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupConfigurationTest {
+
+    private static final String SPRING_DOC_CONFIGURATION = SpringDocConfiguration.class.getName();
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    @BeforeEach
+    void setUp() {
+        beanFactory.registerBeanDefinition(SPRING_DOC_CONFIGURATION, new RootBeanDefinition(SPRING_DOC_CONFIGURATION));
+        RootBeanDefinition openApiBuilder = new RootBeanDefinition();
+        openApiBuilder.setFactoryBeanName(SPRING_DOC_CONFIGURATION);
+        openApiBuilder.setFactoryMethodName("openAPIBuilder");
+        beanFactory.registerBeanDefinition("openAPIBuilder", openApiBuilder);
+        beanFactory.registerBeanDefinition("opeApiConfig", new RootBeanDefinition(OpeApiConfig.class.getName()));
+        beanFactory.registerBeanDefinition("caseDeadlineScheduler",
+                new RootBeanDefinition(CaseDeadlineScheduler.class.getName()));
+        beanFactory.registerBeanDefinition("caseOutboxRelay", new RootBeanDefinition(CaseOutboxRelay.class.getName()));
+        beanFactory.registerBeanDefinition("caseAuditWriter", new RootBeanDefinition(CaseAuditWriter.class.getName()));
+        beanFactory.registerBeanDefinition("caseStatisticsServiceImpl",
+                new RootBeanDefinition(CaseStatisticsServiceImpl.class.getName()));
+    }
+
+    @Test
+    void faststartMakesDocumentationBeansLazy() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(
+                new ResourcePropertySource("classpath:application-faststart.properties"));
+
+        StartupConfiguration.nonCriticalLazyInitialization(environment).postProcessBeanFactory(beanFactory);
+
+        assertLazy(SPRING_DOC_CONFIGURATION, "openAPIBuilder", "opeApiConfig");
+        assertEager("caseDeadlineScheduler", "caseOutboxRelay", "caseAuditWriter", "caseStatisticsServiceImpl");
+    }
+
+    @Test
+    void withoutLazyPackagesEveryBeanIsEager() {
+        StartupConfiguration.nonCriticalLazyInitialization(new StandardEnvironment()).postProcessBeanFactory(beanFactory);
+
+        assertEager(beanFactory.getBeanDefinitionNames());
+    }
+
+    private void assertLazy(String... beanNames) {
+        for (String beanName : beanNames) {
+            assertTrue(beanFactory.getBeanDefinition(beanName).isLazyInit(), beanName);
+        }
+    }
+
+    private void assertEager(String... beanNames) {
+        for (String beanName : beanNames) {
+            assertFalse(beanFactory.getBeanDefinition(beanName).isLazyInit(), beanName);
+        }
+    }
+}
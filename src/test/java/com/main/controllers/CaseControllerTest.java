@@ -5,22 +5,27 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.MySQLContainer;
 import com.main.models.Case;
 import com.main.repository.CaseRepository;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static com.main.constants.CommonConstant.VALIDATION_MESSAGE_FOR_STATUS;
 import static com.main.constants.CommonConstant.VALIDATION_MESSAGE_FOR_TITLE;
+import static com.main.constants.ErrorsConstant.INVALID_DIRECTION;
 import static com.main.constants.ErrorsConstant.NO_SUCH_ELEMENT_EXCEPTION;
 
 @SpringBootTest
@@ -32,7 +37,13 @@ public class CaseControllerTest {
     public static final String BASE_URL_FOR_UPDATE_CASE = "/case/update-case/";
     public static final String BASE_URL_FOR_FIND_CASE = "/case/find-case/";
     public static final String BASE_URL_FOR_FIND_ALL_CASE = "/case/find-all-cases";
+    public static final String BASE_URL_FOR_FIND_CASES = "/case/find-cases";
+    public static final String BASE_URL_FOR_FILTER_CASES = "/case/filter-cases";
+    public static final String BASE_URL_FOR_STREAM_ALL_CASE = "/case/stream-all-cases";
     public static final String BASE_URL_FOR_DELETE_CASE = "/case/";
+    public static final String BASE_URL_FOR_CHANGES = "/case/changes";
+    public static final String BASE_URL_FOR_STATISTICS = "/case/statistics";
+    public static final String BASE_URL_FOR_CASE_HISTORY = "/case/case-history/";
     public static final Long CASE_ID = 12345L;
     public static final String STATUS = "Pending";
     public static final String STATUS_TO_BE_UPDATED = "Completed";
@@ -55,6 +66,10 @@ public class CaseControllerTest {
         registry.add("spring.datasource.url", mysql::getJdbcUrl);
         registry.add("spring.datasource.username", mysql::getUsername);
         registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("case.id.worker-id", () -> 0);
+        // changes are served and lists tagged at once, and the history is written with the change
+        registry.add("case.feed.settle-time", () -> "PT0S");
+        registry.add("case.audit.durability", () -> "transactional");
     }
 
     @BeforeAll
@@ -81,6 +96,34 @@ public class CaseControllerTest {
                 .andExpect(jsonPath("$.status").value(STATUS));
     }
 
+    @Test
+    public void testCreateCaseWithIdempotencyKeyReplaysTheFirstResponse() throws Exception {
+        String caseJson = objectMapper.writeValueAsString(createCase());
+        String key = UUID.randomUUID().toString();
+
+        String created = mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(caseJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(caseJson))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(created));
+
+        mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(caseJson.replace("\"" + TITLE + "\"", "\"" + TITLE + " changed\"")))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testCreateCaseWHenValidationErrorWithBadRequest() throws Exception {
 
@@ -123,6 +166,47 @@ public class CaseControllerTest {
                 .andExpect(jsonPath("$.status").value(STATUS_TO_BE_UPDATED));
     }
 
+    @Test
+    public void testUpdateCaseDetailsWithReturnMinimal() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        mockMvc.perform(patch(BASE_URL_FOR_UPDATE_CASE + created.getCaseId()
+                        + "/" + STATUS_TO_BE_UPDATED)
+                        .header("Prefer", "return=minimal"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testUpdateCaseDetailsWhenVersionIsStaleWithConflict() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        mockMvc.perform(patch(BASE_URL_FOR_UPDATE_CASE + created.getCaseId()
+                        + "/" + STATUS_TO_BE_UPDATED)
+                        .param("version", String.valueOf(created.getVersion() + 1)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testUpdateCaseDetailsWithIfMatchReturnsNewETag() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        mockMvc.perform(patch(BASE_URL_FOR_UPDATE_CASE + created.getCaseId()
+                        + "/" + STATUS_TO_BE_UPDATED)
+                        .header(HttpHeaders.IF_MATCH, "\"" + created.getVersion() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (created.getVersion() + 1) + "\""));
+    }
+
+    @Test
+    public void testUpdateCaseDetailsWhenIfMatchIsStaleWithPreconditionFailed() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        mockMvc.perform(patch(BASE_URL_FOR_UPDATE_CASE + created.getCaseId()
+                        + "/" + STATUS_TO_BE_UPDATED)
+                        .header(HttpHeaders.IF_MATCH, "\"" + (created.getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     public void testUpdateCaseDetailsWhenIdNotFound() throws Exception {
 
@@ -143,6 +227,33 @@ public class CaseControllerTest {
                 .andExpect(jsonPath("$.status").value(STATUS));
     }
 
+    @Test
+    public void testFindACaseWhenETagMatchesNotModified() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        String etag = mockMvc.perform(get(BASE_URL_FOR_FIND_CASE + created.getCaseId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BASE_URL_FOR_FIND_CASE + created.getCaseId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testFindACaseWhenETagIsStaleReturnsCase() throws Exception {
+        Case created = caseRepository.save(createCase());
+
+        mockMvc.perform(get(BASE_URL_FOR_FIND_CASE + created.getCaseId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + (created.getVersion() + 1) + "\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + created.getVersion() + "\""));
+    }
+
     @Test
     public void testFindACaseWhenIdNotExistShouldThrowNoSuchElement()
             throws Exception {
@@ -165,6 +276,69 @@ public class CaseControllerTest {
                 .andExpect(jsonPath("$", hasSize(2)));
     }
 
+    @Test
+    public void testFindAllCasesWhenNothingChangedNotModified() throws Exception {
+        caseRepository.save(createCase());
+
+        String etag = mockMvc.perform(get(BASE_URL_FOR_FIND_ALL_CASE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BASE_URL_FOR_FIND_ALL_CASE).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testFindCasesFollowsCursor() throws Exception {
+        caseRepository.save(createCase());
+        caseRepository.save(createCase());
+
+        String firstPage = mockMvc.perform(get(BASE_URL_FOR_FIND_CASES).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get(BASE_URL_FOR_FIND_CASES).param("cursor", cursor).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+    }
+
+    @Test
+    public void testFindCasesWhenCursorInvalidWithBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL_FOR_FIND_CASES).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStreamAllCases() throws Exception {
+        caseRepository.save(createCase());
+
+        MvcResult result = mockMvc.perform(get(BASE_URL_FOR_STREAM_ALL_CASE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].caseId").exists());
+    }
+
+    @Test
+    public void testStatisticsCountsCreatedCase() throws Exception {
+        long before = objectMapper.readTree(mockMvc.perform(get(BASE_URL_FOR_STATISTICS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("total").asLong();
+
+        mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCase())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get(BASE_URL_FOR_STATISTICS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(before + 1));
+    }
+
     @Test
     public void testDeleteCase() throws Exception {
         Case created = createCase();
@@ -174,6 +348,71 @@ public class CaseControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    public void testChangesFeedHasCreateAndDelete() throws Exception {
+        String caseJson = objectMapper.writeValueAsString(createCase());
+        String body = mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(caseJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long caseId = objectMapper.readValue(body, Case.class).getCaseId();
+        mockMvc.perform(delete(BASE_URL_FOR_DELETE_CASE + caseId))
+                .andExpect(status().isNoContent());
+
+        MvcResult result = mockMvc.perform(get(BASE_URL_FOR_CHANGES).param("follow", "false"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "\"type\":\"CREATED\",\"caseId\":" + caseId)))
+                .andExpect(content().string(containsString(
+                        "\"type\":\"DELETED\",\"caseId\":" + caseId)));
+    }
+
+    @Test
+    public void testCaseHistoryHasCreateAndStatusChange() throws Exception {
+        String body = mockMvc.perform(post(BASE_URL_FOR_CREATE_CASE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCase())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long caseId = objectMapper.readValue(body, Case.class).getCaseId();
+        mockMvc.perform(patch(BASE_URL_FOR_UPDATE_CASE + caseId + "/" + STATUS_TO_BE_UPDATED))
+                .andExpect(status().isOk());
+
+        String firstPage = mockMvc.perform(get(BASE_URL_FOR_CASE_HISTORY + caseId).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].changeType").value("CREATED"))
+                .andExpect(jsonPath("$.content[0].changes.title.to").value(TITLE))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get(BASE_URL_FOR_CASE_HISTORY + caseId).param("size", "1")
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].changeType").value("STATUS_CHANGED"))
+                .andExpect(jsonPath("$.content[0].changes.status.from").value(STATUS))
+                .andExpect(jsonPath("$.content[0].changes.status.to").value(STATUS_TO_BE_UPDATED))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testFilterCasesWhenDirectionInvalidWithBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL_FOR_FILTER_CASES).param("direction", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(INVALID_DIRECTION));
+        mockMvc.perform(get(BASE_URL_FOR_FILTER_CASES).param("direction", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testChangesFeedWhenOffsetNegativeWithBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL_FOR_CHANGES).param("after", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
     private Case createCase() {
         Case cs = new Case();
         cs.setTitle(TITLE);
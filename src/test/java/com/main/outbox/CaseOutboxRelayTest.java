@@ -0,0 +1,158 @@
+package com.main.outbox;
+
+import com.main.events.CaseChangeType;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.RelayCheckpoint;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.RelayCheckpointRepository;
+import com.main.sharding.CaseShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.main.outbox.CaseOutboxRelay.CHECKPOINT_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseOutboxRelayTest {
+
+    @Mock
+    private CaseOutboxRepository outboxRepository;
+
+    @Mock
+    private RelayCheckpointRepository checkpointRepository;
+
+    private final List<CaseOutboxEntry> delivered = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private CaseOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CaseChangeSink sink = changes -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("broker unavailable");
+            }
+            delivered.addAll(changes);
+        };
+        relay = new CaseOutboxRelay(outboxRepository, checkpointRepository, CaseShards.single(),
+                sink, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "laneCount", 4);
+        ReflectionTestUtils.setField(relay, "maxInFlight", 100);
+        ReflectionTestUtils.setField(relay, "initialBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(relay, "maxBackoff", Duration.ofMillis(5));
+        ReflectionTestUtils.setField(relay, "settleTime", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    void pollDeliversChangesInOrderPerCaseAndSavesCheckpoint() throws Exception {
+        when(checkpointRepository.findById(CHECKPOINT_NAME))
+                .thenReturn(Optional.of(new RelayCheckpoint(CHECKPOINT_NAME, 10L)));
+        when(outboxRepository.findAfter(eq(10L), any(), eq(10)))
+                .thenReturn(List.of(entry(11, 1), entry(12, 2), entry(13, 1), entry(14, 3), entry(15, 1)));
+        relay.start();
+
+        relay.poll();
+        awaitDelivered(5);
+        relay.poll();
+
+        assertEquals(List.of(11L, 13L, 15L), delivered.stream()
+                .filter(change -> change.getCaseId() == 1).map(CaseOutboxEntry::getId).toList());
+        assertEquals(15, relay.deliveredUntil());
+        verify(checkpointRepository, atLeastOnce()).save(argThat(checkpoint ->
+                checkpoint.getLastOffset() == 15));
+        assertEquals(5, meterRegistry.get("case.relay.published").counter().count());
+    }
+
+    @Test
+    void failedPublishIsRetriedAndHoldsTheCheckpointBack() throws Exception {
+        when(checkpointRepository.findById(CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        when(outboxRepository.findAfter(eq(0L), any(), eq(10))).thenReturn(List.of(entry(1, 1), entry(2, 2)));
+        failuresLeft.set(3);
+        relay.start();
+
+        relay.dispatch(LocalDateTime.now());
+        assertTrue(relay.deliveredUntil() < 2);
+        awaitDelivered(2);
+
+        assertEquals(2, relay.deliveredUntil());
+        assertEquals(3, meterRegistry.get("case.relay.failures").counter().count());
+    }
+
+    @Test
+    void dispatchStopsAtMaxInFlight() {
+        ReflectionTestUtils.setField(relay, "maxInFlight", 2);
+        when(checkpointRepository.findById(CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        when(outboxRepository.findAfter(eq(0L), any(), eq(2))).thenReturn(List.of(entry(1, 1), entry(2, 1)));
+        failuresLeft.set(Integer.MAX_VALUE);
+        relay.start();
+
+        assertTrue(relay.dispatch(LocalDateTime.now()));
+        assertFalse(relay.dispatch(LocalDateTime.now()));
+        verify(outboxRepository, times(1)).findAfter(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void dispatchMergesTheOutboxesOfAllShards() throws Exception {
+        relay = new CaseOutboxRelay(outboxRepository, checkpointRepository, new CaseShards(2, 2, Map.of()),
+                delivered::addAll, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 3);
+        ReflectionTestUtils.setField(relay, "laneCount", 2);
+        ReflectionTestUtils.setField(relay, "maxInFlight", 100);
+        when(checkpointRepository.findById(CHECKPOINT_NAME)).thenReturn(Optional.empty());
+        when(outboxRepository.findAfter(eq(0L), any(), eq(3))).thenAnswer(invocation ->
+                CaseShards.currentShard() == 0
+                        ? List.of(entry(1, 1), entry(4, 1), entry(5, 1))
+                        : List.of(entry(2, 2), entry(3, 2), entry(6, 2)));
+        relay.start();
+
+        assertTrue(relay.dispatch(LocalDateTime.now()));
+        awaitDelivered(3);
+
+        assertEquals(List.of(1L, 2L, 3L), delivered.stream().map(CaseOutboxEntry::getId).sorted().toList());
+        assertEquals(3, relay.deliveredUntil());
+        verify(outboxRepository, times(2)).findAfter(eq(0L), any(), eq(3));
+    }
+
+    private void awaitDelivered(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delivered.size() < count || relay.deliveredUntil() < delivered.stream()
+                .mapToLong(CaseOutboxEntry::getId).max().orElse(0)) {
+            assertTrue(System.nanoTime() < deadline, "changes were not delivered in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static CaseOutboxEntry entry(long offset, long caseId) {
+        return new CaseOutboxEntry(offset, caseId, CaseChangeType.STATUS_CHANGED, "{}",
+                LocalDateTime.now().minusSeconds(2));
+    }
+}
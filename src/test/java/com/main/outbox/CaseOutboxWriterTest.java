@@ -0,0 +1,92 @@
+package com.main.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.ServiceApplication;
+import com.main.events.CaseChangeType;
+import com.main.events.CaseChangedEvent;
+import com.main.models.Case;
+import com.main.models.CaseOutboxEntry;
+import com.main.repository.CaseOutboxRepository;
+import com.main.sharding.CaseIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseOutboxWriterTest {
+
+    @Mock
+    private CaseOutboxRepository outboxRepository;
+
+    @Captor
+    private ArgumentCaptor<List<CaseOutboxEntry>> entriesCaptor;
+
+    private CaseOutboxWriter outboxWriter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ServiceApplication().objectMapper();
+        outboxWriter = new CaseOutboxWriter(outboxRepository, CaseIdGenerator.forWorker(1), objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void changesOfATransactionAreWrittenAsOneBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        outboxWriter.onCaseChanged(CaseChangedEvent.created(
+                new Case(1L, "Title", "Description", "Pending", LocalDateTime.now())));
+        outboxWriter.onCaseChanged(CaseChangedEvent.deleted(2L));
+        verifyNoInteractions(outboxRepository);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCommit(false);
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(outboxRepository).insertAll(entriesCaptor.capture());
+        List<CaseOutboxEntry> entries = entriesCaptor.getValue();
+        assertEquals(2, entries.size());
+        assertEquals(CaseChangeType.CREATED, entries.get(0).getChangeType());
+        assertTrue(entries.get(0).getPayload().contains("\"title\":\"Title\""));
+        assertNotNull(entries.get(0).getOccurredAt());
+        assertTrue(entries.get(0).getId() < entries.get(1).getId());
+        assertEquals(2L, entries.get(1).getCaseId());
+        assertNull(entries.get(1).getPayload());
+        assertFalse(TransactionSynchronizationManager.hasResource(outboxWriter));
+    }
+
+    @Test
+    void changeOutsideATransactionIsWrittenImmediately() {
+        outboxWriter.onCaseChanged(CaseChangedEvent.statusChanged(
+                new Case(3L, "Title", "Description", "Pending", LocalDateTime.now()), "Completed"));
+
+        verify(outboxRepository).insertAll(entriesCaptor.capture());
+        assertEquals(CaseChangeType.STATUS_CHANGED, entriesCaptor.getValue().get(0).getChangeType());
+    }
+}
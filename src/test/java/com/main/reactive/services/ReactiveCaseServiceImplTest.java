@@ -0,0 +1,121 @@
+package com.main.reactive.services;
+
+import com.main.exception.InvalidRequestException;
+import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.reactive.exception.ReadOnlyDeploymentException;
+import com.main.reactive.repository.ReactiveCaseRepository;
+import com.main.reactive.services.impl.ReactiveCaseServiceImpl;
+import com.main.sharding.CaseIdGenerator;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveCaseServiceImplTest {
+
+    private static final String CREATE_CASE_DETAILS = "CREATE TABLE case_details (case_id BIGINT PRIMARY KEY, "
+            + "title VARCHAR(255) NOT NULL, description VARCHAR(255), status VARCHAR(255) NOT NULL, "
+            + "due_date_time TIMESTAMP(6) NOT NULL, version BIGINT NOT NULL, last_modified TIMESTAMP(6))";
+    private static final String CREATE_CASE_ARCHIVE = "CREATE TABLE case_archive (case_id BIGINT PRIMARY KEY, "
+            + "title VARCHAR(255) NOT NULL, description VARCHAR(255), status VARCHAR(255) NOT NULL, "
+            + "due_date_time TIMESTAMP(6) NOT NULL, version BIGINT NOT NULL, last_modified TIMESTAMP(6), "
+            + "archived_at TIMESTAMP(6) NOT NULL)";
+    private static final LocalDateTime DUE = LocalDateTime.of(2026, 3, 1, 9, 30);
+
+    private DatabaseClient databaseClient;
+    private ReactiveCaseService caseService;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = DatabaseClient.create(H2ConnectionFactory.inMemory(UUID.randomUUID().toString()));
+        databaseClient.sql(CREATE_CASE_DETAILS).then().block();
+        databaseClient.sql(CREATE_CASE_ARCHIVE).then().block();
+        caseService = new ReactiveCaseServiceImpl(new ReactiveCaseRepository(databaseClient),
+                CaseIdGenerator.forWorker(0));
+        ReflectionTestUtils.setField(caseService, "writesEnabled", true);
+    }
+
+    @Test
+    void testCreateThenFindCase() {
+        Case created = caseService.createCase(new Case(null, "Sample", null, "Pending", DUE)).block();
+
+        Case found = caseService.findCase(created.getCaseId()).block();
+
+        assertEquals("Sample", found.getTitle());
+        assertNull(found.getDescription());
+        assertEquals(DUE, found.getDueDateTime());
+        assertEquals(Long.valueOf(0L), found.getVersion());
+    }
+
+    @Test
+    void testUpdateCaseStatusChecksVersion() {
+        Long caseId = caseService.createCase(new Case(null, "Sample", "d", "Pending", DUE)).block().getCaseId();
+
+        Case updated = caseService.updateCaseStatus(caseId, "Completed", 0L).block();
+
+        assertEquals("Completed", updated.getStatus());
+        assertEquals(Long.valueOf(1L), updated.getVersion());
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> caseService.updateCaseStatus(caseId, "Closed", 0L).block());
+        assertNull(caseService.updateCaseStatus(-1L, "Closed", null).block());
+        assertFalse(caseService.changeCaseStatus(-1L, "Closed", 3L).block());
+    }
+
+    @Test
+    void testFindCasesPagesByCaseId() {
+        for (int i = 0; i < 3; i++) {
+            caseService.createCase(new Case(null, "Sample " + i, "d", "Pending", DUE)).block();
+        }
+
+        CasePage first = caseService.findCases(null, 2).block();
+        CasePage second = caseService.findCases(first.getNextCursor(), 2).block();
+
+        assertEquals(2, first.getContent().size());
+        assertEquals(1, second.getContent().size());
+        assertNull(second.getNextCursor());
+        assertTrue(first.getContent().get(1).getCaseId() < second.getContent().get(0).getCaseId());
+        assertThrows(InvalidRequestException.class, () -> caseService.findCases(null, 0).block());
+        assertEquals(3, caseService.streamAllCases().count().block());
+    }
+
+    @Test
+    void testFindAndDeleteFallThroughToArchive() {
+        databaseClient.sql("INSERT INTO case_archive VALUES (7, 'Old', 'd', 'Closed', :due, 2, :due, :due)")
+                .bind("due", DUE).then().block();
+
+        assertEquals("Old", caseService.findCase(7L).block().getTitle());
+
+        caseService.deleteCase(7L).block();
+
+        assertThrows(NoSuchElementException.class, () -> caseService.findCase(7L).block());
+        assertEquals(List.of(), caseService.streamAllCases().collectList().block());
+    }
+
+    @Test
+    void testWritesAreRefusedUnlessEnabled() {
+        Long caseId = caseService.createCase(new Case(null, "Sample", "d", "Pending", DUE)).block().getCaseId();
+        ReflectionTestUtils.setField(caseService, "writesEnabled", false);
+
+        assertThrows(ReadOnlyDeploymentException.class,
+                () -> caseService.createCase(new Case(null, "Other", "d", "Pending", DUE)).block());
+        assertThrows(ReadOnlyDeploymentException.class,
+                () -> caseService.updateCaseStatus(caseId, "Completed", null).block());
+        assertThrows(ReadOnlyDeploymentException.class, () -> caseService.deleteCase(caseId).block());
+        assertEquals("Pending", caseService.findCase(caseId).block().getStatus());
+        assertEquals(1, caseService.streamAllCases().count().block());
+    }
+}
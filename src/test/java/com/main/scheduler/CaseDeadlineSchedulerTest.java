@@ -0,0 +1,198 @@
+package com.main.scheduler;
+
+import com.main.events.CaseChangedEvent;
+import com.main.events.CaseDeadlineEvent;
+import com.main.events.CaseDeadlineType;
+import com.main.events.CaseChangeType;
+import com.main.models.Case;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.CaseState;
+import com.main.models.SchedulerWatermark;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.CaseRepository;
+import com.main.repository.SchedulerWatermarkRepository;
+import com.main.services.CaseService;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseDeadlineSchedulerTest {
+
+    public static final String STATUS = "Pending";
+    public static final String OVERDUE_STATUS = "Overdue";
+    public static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 12, 0);
+    public static final String OWNER = "worker-0";
+    public static final String WATERMARK_NAME = "case-deadline";
+
+    @Mock
+    private CaseRepository caseRepository;
+
+    @Mock
+    private SchedulerWatermarkRepository watermarkRepository;
+
+    @Mock
+    private CaseService caseService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CaseOutboxRepository outboxRepository;
+
+    private CaseDeadlineScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new CaseDeadlineScheduler(caseRepository, watermarkRepository,
+                caseService, eventPublisher, CaseShards.single(), outboxRepository, CaseIdGenerator.forWorker(0));
+        ReflectionTestUtils.setField(scheduler, "lookAhead", Duration.ofHours(24));
+        ReflectionTestUtils.setField(scheduler, "dueSoon", Duration.ofHours(1));
+        ReflectionTestUtils.setField(scheduler, "closedStatuses", Set.of("Completed"));
+        ReflectionTestUtils.setField(scheduler, "overdueStatus", OVERDUE_STATUS);
+        ReflectionTestUtils.setField(scheduler, "lease", Duration.ofMinutes(3));
+        ReflectionTestUtils.setField(scheduler, "settleTime", Duration.ofSeconds(1));
+        scheduler.init();
+        ReflectionTestUtils.setField(scheduler, "loadedUntil", NOW);
+    }
+
+    @Test
+    void testTickFiresDueSoonThenOverdueAndTransitions() {
+        Case dueInHalfAnHour = createCase(1L, NOW.plusMinutes(30));
+        when(caseRepository.findOpenCasesDueBetween(eq(NOW), eq(Long.MAX_VALUE),
+                eq(NOW.plusHours(24)), anyCollection(), eq(Limit.of(1000))))
+                .thenReturn(List.of(dueInHalfAnHour));
+
+        scheduler.refresh(NOW);
+        scheduler.tick(NOW);
+        verify(eventPublisher).publishEvent(new CaseDeadlineEvent(
+                CaseDeadlineType.DUE_SOON, 1L, dueInHalfAnHour.getDueDateTime()));
+
+        scheduler.tick(NOW.plusMinutes(31));
+        verify(eventPublisher).publishEvent(new CaseDeadlineEvent(
+                CaseDeadlineType.OVERDUE, 1L, dueInHalfAnHour.getDueDateTime()));
+        verify(caseService).changeCaseStatus(1L, OVERDUE_STATUS, null);
+        assertEquals(0, scheduler.trackedCount());
+    }
+
+    @Test
+    void testCreatedCaseInsideWindowIsTrackedAndDeletedCaseIsNot() {
+        scheduler.onCaseChanged(CaseChangedEvent.created(createCase(2L, NOW.minusMinutes(1))));
+        assertEquals(1, scheduler.trackedCount());
+
+        scheduler.onCaseChanged(CaseChangedEvent.deleted(2L));
+        assertEquals(0, scheduler.trackedCount());
+
+        scheduler.tick(NOW);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testClosingACaseStopsTrackingIt() {
+        scheduler.onCaseChanged(CaseChangedEvent.created(createCase(3L, NOW.minusMinutes(1))));
+        scheduler.onCaseChanged(CaseChangedEvent.statusChanged(createCase(3L, NOW.minusMinutes(1)), "Completed"));
+
+        assertEquals(0, scheduler.trackedCount());
+    }
+
+    @Test
+    void testReopenedCaseIsLookedUpOnRefresh() {
+        Case reopened = createCase(4L, NOW.minusHours(2));
+        when(caseRepository.findAllById(List.of(4L))).thenReturn(List.of(reopened));
+        when(caseRepository.findOpenCasesDueBetween(any(), any(), any(), anyCollection(), any()))
+                .thenReturn(List.of());
+
+        scheduler.onCaseChanged(CaseChangedEvent.statusChanged(
+                new CaseState(4L, "Completed", reopened.getDueDateTime(), 1L).toCase(), STATUS));
+        scheduler.refresh(NOW);
+
+        assertEquals(1, scheduler.trackedCount());
+        verify(caseRepository, never()).findById(anyLong());
+        verify(watermarkRepository, never()).findById(any());
+    }
+
+    private Case createCase(Long caseId, LocalDateTime dueDateTime) {
+        return new Case(caseId, "Sample", "Case description", STATUS, dueDateTime);
+    }
+    @Test
+    void testFirstStartCatchesUpFromTheOldestOpenCase() {
+        ReflectionTestUtils.setField(scheduler, "loadedUntil", null);
+        LocalDateTime oldest = NOW.minusDays(3);
+        when(watermarkRepository.existsById(WATERMARK_NAME)).thenReturn(false);
+        when(caseRepository.findOldestOpenDueDate(anyCollection())).thenReturn(Optional.of(oldest));
+        when(watermarkRepository.insertLeased(WATERMARK_NAME, oldest.minusNanos(1_000), OWNER, NOW.plusMinutes(3)))
+                .thenReturn(1);
+        when(watermarkRepository.findById(WATERMARK_NAME)).thenReturn(Optional.of(
+                new SchedulerWatermark(WATERMARK_NAME, oldest.minusNanos(1_000), OWNER, NOW.plusMinutes(3))));
+        when(caseRepository.findOpenCasesDueBetween(eq(oldest.minusNanos(1_000)), eq(Long.MAX_VALUE),
+                eq(NOW.plusHours(24)), anyCollection(), eq(Limit.of(1000))))
+                .thenReturn(List.of(createCase(5L, oldest)));
+
+        scheduler.refreshOrTakeOver(NOW);
+        scheduler.tick(NOW);
+
+        verify(eventPublisher).publishEvent(new CaseDeadlineEvent(CaseDeadlineType.OVERDUE, 5L, oldest));
+        verify(caseService).changeCaseStatus(5L, OVERDUE_STATUS, null);
+    }
+
+    @Test
+    void testStandByWhileAnotherInstanceHoldsTheLease() {
+        ReflectionTestUtils.setField(scheduler, "loadedUntil", null);
+        when(watermarkRepository.existsById(WATERMARK_NAME)).thenReturn(true);
+        when(watermarkRepository.acquireLease(WATERMARK_NAME, OWNER, NOW, NOW.plusMinutes(3))).thenReturn(0);
+
+        scheduler.refreshOrTakeOver(NOW);
+        scheduler.onCaseChanged(CaseChangedEvent.created(createCase(6L, NOW.minusMinutes(1))));
+        scheduler.tick();
+
+        assertEquals(0, scheduler.trackedCount());
+        verifyNoInteractions(caseRepository, eventPublisher);
+    }
+
+    @Test
+    void testLosingTheLeaseStopsTracking() {
+        scheduler.onCaseChanged(CaseChangedEvent.created(createCase(7L, NOW.minusMinutes(1))));
+        ReflectionTestUtils.setField(scheduler, "firedUntil", NOW);
+        when(watermarkRepository.renewLease(WATERMARK_NAME, OWNER, NOW, NOW.plusMinutes(4))).thenReturn(0);
+
+        scheduler.refreshOrTakeOver(NOW.plusMinutes(1));
+        scheduler.onCaseChanged(CaseChangedEvent.created(createCase(8L, NOW.minusMinutes(1))));
+
+        assertEquals(0, scheduler.trackedCount());
+        verifyNoInteractions(caseRepository);
+    }
+
+    @Test
+    void testCasesChangedOnOtherInstancesAreLookedUpOnRefresh() {
+        long ownChange = CaseIdGenerator.forWorker(0).nextId();
+        long otherChange = CaseIdGenerator.forWorker(1).nextId();
+        Case changedElsewhere = createCase(9L, NOW.minusMinutes(5));
+        when(outboxRepository.findAfter(0L, NOW.minusSeconds(1), 1000)).thenReturn(List.of(
+                new CaseOutboxEntry(ownChange, 10L, CaseChangeType.CREATED, null, NOW),
+                new CaseOutboxEntry(otherChange, 9L, CaseChangeType.CREATED, null, NOW)));
+        when(caseRepository.findAllById(List.of(9L))).thenReturn(List.of(changedElsewhere));
+        when(caseRepository.findOpenCasesDueBetween(any(), any(), any(), anyCollection(), any()))
+                .thenReturn(List.of());
+
+        scheduler.refresh(NOW);
+
+        assertEquals(1, scheduler.trackedCount());
+    }
+}
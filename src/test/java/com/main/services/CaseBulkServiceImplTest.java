@@ -0,0 +1,220 @@
+package com.main.services;
+
+import com.main.events.CaseChangedEvent;
+import com.main.exception.InvalidRequestException;
+import com.main.models.BulkCaseFilter;
+import com.main.models.BulkCaseOutcome;
+import com.main.models.BulkCreateResponse;
+import com.main.models.BulkOperationResponse;
+import com.main.models.Case;
+import com.main.models.CaseState;
+import com.main.repository.CaseRepository;
+import com.main.services.impl.CaseBulkServiceImpl;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static com.main.constants.CommonConstant.CASE_CACHE;
+import static com.main.constants.CommonConstant.VALIDATION_MESSAGE_FOR_TITLE;
+import static com.main.constants.ErrorsConstant.MALFORMED_BULK_ROW;
+
+@ExtendWith(MockitoExtension.class)
+class CaseBulkServiceImplTest {
+
+    public static final String STATUS = "Pending";
+    public static final String TITLE = "Sample";
+
+    @Mock
+    private CaseRepository caseRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CaseBulkServiceImpl caseBulkService;
+
+    @BeforeEach
+    void setUp() {
+        caseBulkService = new CaseBulkServiceImpl(caseRepository, entityManager,
+                new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ConcurrentMapCacheManager(CASE_CACHE), eventPublisher,
+                CaseShards.single(), CaseIdGenerator.forWorker(0));
+        ReflectionTestUtils.setField(caseBulkService, "batchSize", 2);
+        ReflectionTestUtils.setField(caseBulkService, "chunkSize", 2);
+    }
+
+    @Test
+    void testCreateCasesInsertsValidRowsInChunks() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(caseRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Case> chunk = invocation.getArgument(0);
+            chunk.forEach(cs -> cs.setCaseId((long) cs.getTitle().hashCode()));
+            return chunk;
+        });
+
+        BulkCreateResponse response = caseBulkService.createCases(List.of(
+                createCase(TITLE + 1), createCase(TITLE + 2), createCase(TITLE + 3)).iterator());
+
+        assertEquals(3, response.getReceived());
+        assertEquals(3, response.getCreated());
+        assertEquals(BulkCaseOutcome.CREATED, response.getResults().get(2).getOutcome());
+        verify(caseRepository, times(2)).saveAll(anyList());
+        verify(session, times(2)).setJdbcBatchSize(2);
+    }
+
+    @Test
+    void testCreateCasesRejectsInvalidRows() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        BulkCreateResponse response = caseBulkService.createCases(List.of(
+                createCase(""), createCase(TITLE)).iterator());
+
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getCreated());
+        assertEquals(VALIDATION_MESSAGE_FOR_TITLE,
+                response.getResults().get(0).getErrors().get("title"));
+    }
+
+    @Test
+    void testCreateCasesInsertsRowsBeforeAMalformedOne() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        Iterator<Case> rows = new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index == 1) {
+                    throw new InvalidRequestException(MALFORMED_BULK_ROW + index);
+                }
+                return true;
+            }
+
+            @Override
+            public Case next() {
+                index++;
+                return createCase(TITLE);
+            }
+        };
+
+        BulkCreateResponse response = caseBulkService.createCases(rows);
+
+        assertEquals(2, response.getReceived());
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getRejected());
+        assertEquals(MALFORMED_BULK_ROW + 1, response.getResults().get(1).getErrors().get("case"));
+        verify(caseRepository).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateCasesMarksChunkFailedWhenInsertFails() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(caseRepository.saveAll(anyList())).thenThrow(new IllegalStateException("down"));
+
+        BulkCreateResponse response = caseBulkService.createCases(
+                List.of(createCase(TITLE)).iterator());
+
+        assertEquals(1, response.getFailed());
+        assertEquals(BulkCaseOutcome.FAILED, response.getResults().get(0).getOutcome());
+    }
+
+    @Test
+    void testUpdateCaseStatusesByIdsRunsOneStatementPerChunk() {
+        when(caseRepository.findStatesForUpdate(anyList())).thenAnswer(invocation -> ((List<Long>) invocation
+                .getArgument(0)).stream().map(caseId -> new CaseState(caseId, STATUS, null, 0L)).toList());
+        when(caseRepository.updateStatusByCaseIds(anyList(), eq("Closed"), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        BulkOperationResponse response = caseBulkService.updateCaseStatuses(
+                new BulkCaseFilter(List.of(1L, 2L, 3L, 3L), null, null), "Closed");
+
+        assertEquals(3, response.getAffected());
+        assertEquals(2, response.getChunks());
+        verify(caseRepository).updateStatusByCaseIds(eq(List.of(1L, 2L)), eq("Closed"),
+                any(LocalDateTime.class));
+        verify(caseRepository).updateStatusByCaseIds(eq(List.of(3L)), eq("Closed"),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void testDeleteCasesByFilterWalksMatchingIds() {
+        LocalDateTime dueBefore = LocalDateTime.now();
+        when(caseRepository.findCaseIdsByStatusAndDueBefore(STATUS, dueBefore, 0L, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(caseRepository.findCaseIdsByStatusAndDueBefore(STATUS, dueBefore, 2L, Limit.of(2)))
+                .thenReturn(List.of(5L));
+        when(caseRepository.findCaseIdsByStatusAndDueBefore(STATUS, dueBefore, 5L, Limit.of(2)))
+                .thenReturn(List.of());
+        when(caseRepository.findAllForUpdate(anyList())).thenAnswer(invocation -> ((List<Long>) invocation
+                .getArgument(0)).stream().map(this::createCase).toList());
+        when(caseRepository.deleteByCaseIds(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        BulkOperationResponse response = caseBulkService.deleteCases(
+                new BulkCaseFilter(null, STATUS, dueBefore));
+
+        assertEquals(3, response.getAffected());
+        assertEquals(2, response.getChunks());
+    }
+
+    @Test
+    void testDeleteCasesOnlyPublishesChangesOfExistingCases() {
+        Case existing = createCase(2L);
+        when(caseRepository.findAllForUpdate(List.of(1L, 2L))).thenReturn(List.of(existing));
+        when(caseRepository.findAllForUpdate(List.of(3L))).thenReturn(List.of());
+        when(caseRepository.deleteByCaseIds(List.of(2L))).thenReturn(1);
+
+        BulkOperationResponse response = caseBulkService.deleteCases(
+                new BulkCaseFilter(List.of(1L, 2L, 3L), null, null));
+
+        assertEquals(1, response.getAffected());
+        verify(eventPublisher).publishEvent(CaseChangedEvent.deleted(existing));
+        verifyNoMoreInteractions(eventPublisher);
+        verify(caseRepository, never()).deleteByCaseIds(List.of(3L));
+    }
+
+    @Test
+    void testDeleteCasesWithoutFilterShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class,
+                () -> caseBulkService.deleteCases(new BulkCaseFilter(null, STATUS, null)));
+    }
+
+    private Case createCase(Long caseId) {
+        Case caseDetails = createCase(TITLE);
+        caseDetails.setCaseId(caseId);
+        return caseDetails;
+    }
+
+    private Case createCase(String title) {
+        return new Case(null, title, "desc", STATUS, LocalDateTime.now().plusDays(1));
+    }
+}
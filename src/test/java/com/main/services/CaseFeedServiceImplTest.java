@@ -0,0 +1,170 @@
+package com.main.services;
+
+import com.main.events.CaseChangeType;
+import com.main.exception.InvalidRequestException;
+import com.main.models.CaseOutboxEntry;
+import com.main.models.RelayCheckpoint;
+import com.main.outbox.CaseOutboxRelay;
+import com.main.repository.CaseOutboxRepository;
+import com.main.repository.RelayCheckpointRepository;
+import com.main.services.impl.CaseFeedServiceImpl;
+import com.main.sharding.CaseShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseFeedServiceImplTest {
+
+    @Mock
+    private CaseOutboxRepository outboxRepository;
+
+    @Mock
+    private RelayCheckpointRepository checkpointRepository;
+
+    private CaseFeedServiceImpl caseFeedService;
+
+    @BeforeEach
+    void setUp() {
+        caseFeedService = new CaseFeedServiceImpl(outboxRepository, checkpointRepository, CaseShards.single());
+        ReflectionTestUtils.setField(caseFeedService, "batchSize", 2);
+        ReflectionTestUtils.setField(caseFeedService, "pollInterval", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(caseFeedService, "settleTime", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(caseFeedService, "maxDuration", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(caseFeedService, "retention", Duration.ofDays(7));
+    }
+
+    @Test
+    void tailChangesReadsBatchesUntilCaughtUp() {
+        when(outboxRepository.findAfter(eq(5L), any(), eq(2))).thenReturn(List.of(entry(6), entry(7)));
+        when(outboxRepository.findAfter(eq(7L), any(), eq(2))).thenReturn(List.of(entry(9)));
+        List<List<CaseOutboxEntry>> batches = new ArrayList<>();
+
+        long offset = caseFeedService.tailChanges(5, false, batches::add);
+
+        assertEquals(9, offset);
+        assertEquals(2, batches.size());
+        verify(outboxRepository, never()).findAfter(eq(9L), any(), anyInt());
+    }
+
+    @Test
+    void tailChangesMergesTheOutboxesOfAllShardsInOffsetOrder() {
+        caseFeedService = new CaseFeedServiceImpl(outboxRepository, checkpointRepository, new CaseShards(2, 2, Map.of()));
+        ReflectionTestUtils.setField(caseFeedService, "batchSize", 2);
+        ReflectionTestUtils.setField(caseFeedService, "settleTime", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(caseFeedService, "maxDuration", Duration.ofMinutes(1));
+        when(outboxRepository.findAfter(eq(0L), any(), eq(2))).thenAnswer(invocation ->
+                CaseShards.currentShard() == 0 ? List.of(entry(1), entry(4)) : List.of(entry(2), entry(3)));
+        when(outboxRepository.findAfter(eq(2L), any(), eq(2))).thenAnswer(invocation ->
+                CaseShards.currentShard() == 0 ? List.of(entry(4)) : List.of(entry(3)));
+        when(outboxRepository.findAfter(eq(4L), any(), eq(2))).thenReturn(List.of());
+        List<Long> offsets = new ArrayList<>();
+
+        long offset = caseFeedService.tailChanges(0, false,
+                batch -> batch.forEach(change -> offsets.add(change.getId())));
+
+        assertEquals(4, offset);
+        assertEquals(List.of(1L, 2L, 3L, 4L), offsets);
+    }
+
+    @Test
+    void tailChangesWithFollowPollsUntilMaxDuration() {
+        ReflectionTestUtils.setField(caseFeedService, "maxDuration", Duration.ofMillis(50));
+        when(outboxRepository.findAfter(eq(0L), any(), eq(2))).thenReturn(List.of());
+
+        long offset = caseFeedService.tailChanges(0, true, batch -> { });
+
+        assertEquals(0, offset);
+        verify(outboxRepository, atLeast(2)).findAfter(eq(0L), any(), eq(2));
+    }
+
+    @Test
+    void tailChangesOnlyReadsSettledChanges() {
+        when(outboxRepository.findAfter(eq(0L), any(), eq(2))).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        caseFeedService.tailChanges(0, false, batch -> { });
+
+        verify(outboxRepository).findAfter(eq(0L),
+                argThat(until -> until.isBefore(before)), eq(2));
+    }
+
+    @Test
+    void tailChangesRejectsNegativeOffset() {
+        assertThrows(InvalidRequestException.class,
+                () -> caseFeedService.tailChanges(-1, false, batch -> { }));
+    }
+
+    @Test
+    void purgeExpiredChangesDeletesOlderThanRetention() {
+        when(outboxRepository.deleteOccurredBefore(any(), eq(Long.MAX_VALUE))).thenReturn(3);
+
+        assertEquals(3, caseFeedService.purgeExpiredChanges());
+        verify(outboxRepository).deleteOccurredBefore(
+                argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(6))), eq(Long.MAX_VALUE));
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    @Test
+    void purgeExpiredChangesKeepsWhatTheRelayHasNotDelivered() {
+        ReflectionTestUtils.setField(caseFeedService, "relayEnabled", true);
+        when(checkpointRepository.findById(CaseOutboxRelay.CHECKPOINT_NAME))
+                .thenReturn(Optional.of(new RelayCheckpoint(CaseOutboxRelay.CHECKPOINT_NAME, 41L)));
+
+        caseFeedService.purgeExpiredChanges();
+
+        verify(outboxRepository).deleteOccurredBefore(any(), eq(41L));
+    }
+
+    @Test
+    void purgeExpiredChangesKeepsEverythingUntilTheRelayHasACheckpoint() {
+        ReflectionTestUtils.setField(caseFeedService, "relayEnabled", true);
+
+        caseFeedService.purgeExpiredChanges();
+
+        verify(outboxRepository).deleteOccurredBefore(any(), eq(0L));
+    }
+
+    @Test
+    void latestOffsetsOnceTheLatestChangeSettled() {
+        CaseOutboxEntry settled = entry(7);
+        settled.setOccurredAt(LocalDateTime.now().minusSeconds(5));
+        when(outboxRepository.findLatest()).thenReturn(Optional.of(settled));
+
+        assertEquals(Optional.of(List.of(7L)), caseFeedService.latestOffsets());
+    }
+
+    @Test
+    void latestOffsetsEmptyWhileTheLatestChangeSettles() {
+        when(outboxRepository.findLatest()).thenReturn(Optional.of(entry(7)));
+
+        assertEquals(Optional.empty(), caseFeedService.latestOffsets());
+    }
+
+    @Test
+    void latestOffsetsOfAnEmptyOutbox() {
+        when(outboxRepository.findLatest()).thenReturn(Optional.empty());
+
+        assertEquals(Optional.of(List.of(0L)), caseFeedService.latestOffsets());
+    }
+
+    private static CaseOutboxEntry entry(long offset) {
+        return new CaseOutboxEntry(offset, offset * 10, CaseChangeType.CREATED, "{}", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,67 @@
+package com.main.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.ServiceApplication;
+import com.main.events.CaseChangeType;
+import com.main.exception.InvalidRequestException;
+import com.main.models.CaseAuditEntry;
+import com.main.models.CaseHistoryPage;
+import com.main.repository.CaseAuditRepository;
+import com.main.services.impl.CaseHistoryServiceImpl;
+import com.main.sharding.CaseShards;
+import com.main.utils.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CaseHistoryServiceImplTest {
+
+    @Mock
+    private CaseAuditRepository auditRepository;
+
+    private CaseHistoryService caseHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ServiceApplication().objectMapper();
+        caseHistoryService = new CaseHistoryServiceImpl(auditRepository, CaseShards.single(), objectMapper);
+    }
+
+    @Test
+    void findHistoryPagesByEntryId() {
+        when(auditRepository.findByCaseIdAfter(7L, 0L, 2)).thenReturn(List.of(
+                entry(11L, CaseChangeType.CREATED, "{\"status\":{\"from\":null,\"to\":\"Open\"}}"),
+                entry(12L, CaseChangeType.STATUS_CHANGED, "{\"status\":{\"from\":\"Open\",\"to\":\"Closed\"}}")));
+        when(auditRepository.findByCaseIdAfter(7L, 11L, 2)).thenReturn(List.of(
+                entry(12L, CaseChangeType.STATUS_CHANGED, "{\"status\":{\"from\":\"Open\",\"to\":\"Closed\"}}")));
+
+        CaseHistoryPage first = caseHistoryService.findHistory(7L, null, 1);
+        CaseHistoryPage second = caseHistoryService.findHistory(7L, first.getNextCursor(), 1);
+
+        assertEquals(1, first.getContent().size());
+        assertEquals("Open", first.getContent().get(0).getChanges().get("status").getTo());
+        assertEquals(CursorUtil.encode(11L), first.getNextCursor());
+        assertEquals("Closed", second.getContent().get(0).getChanges().get("status").getTo());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void findHistoryRejectsInvalidPageSize() {
+        assertThrows(InvalidRequestException.class, () -> caseHistoryService.findHistory(7L, null, 0));
+    }
+
+    private static CaseAuditEntry entry(Long id, CaseChangeType type, String changes) {
+        return new CaseAuditEntry(id, 7L, type, changes, LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
@@ -0,0 +1,202 @@
+package com.main.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.main.exception.InvalidRequestException;
+import com.main.models.Case;
+import com.main.models.IdempotencyRecord;
+import com.main.models.IdempotentCase;
+import com.main.repository.IdempotencyRepository;
+import com.main.services.impl.CaseIdempotencyServiceImpl;
+import com.main.sharding.CaseIdGenerator;
+import com.main.utils.ObjectMapperUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.main.constants.ErrorsConstant.IDEMPOTENCY_KEY_REUSED;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseIdempotencyServiceImplTest {
+
+    private static final String KEY = "8e03978e-40d5-43e8-bc93-6894a57f9324";
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @Mock
+    private CaseService caseService;
+
+    @Mock
+    private IdempotencyRepository idempotencyRepository;
+
+    private final ObjectMapper objectMapper = ObjectMapperUtil.configure(new ObjectMapper());
+
+    private CaseIdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new CaseIdempotencyServiceImpl(caseService, idempotencyRepository,
+                CaseIdGenerator.forWorker(0), objectMapper);
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100L);
+        ReflectionTestUtils.setField(idempotencyService, "abandonAfter", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(idempotencyService, "init");
+    }
+
+    @Test
+    void testRetryIsServedFromMemory() {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(2)));
+        when(caseService.createCase(any(Case.class), anyLong())).thenReturn(createdCase());
+
+        IdempotentCase first = idempotencyService.createCase(KEY, request()).orElseThrow();
+        IdempotentCase retry = idempotencyService.createCase(KEY, request()).orElseThrow();
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertSame(first.getCaseDetails(), retry.getCaseDetails());
+        verify(caseService, times(1)).createCase(any(Case.class), anyLong());
+        verify(idempotencyRepository, times(1)).claim(eq(KEY), anyString(), anyLong(), any(), any());
+        verify(idempotencyRepository, times(1)).complete(eq(KEY), eq(1001L), anyString());
+    }
+
+    @Test
+    void testConcurrentDuplicatesCreateOnce() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(2)));
+        when(caseService.createCase(any(Case.class), anyLong())).thenAnswer(invocation -> {
+            creating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return createdCase();
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<IdempotentCase>> first = executor.submit(() -> idempotencyService.createCase(KEY, request()));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            Future<Optional<IdempotentCase>> duplicate = executor.submit(() -> idempotencyService.createCase(KEY, request()));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(1001L, first.get().orElseThrow().getCaseDetails().getCaseId());
+            assertEquals(1001L, duplicate.get().orElseThrow().getCaseDetails().getCaseId());
+            assertTrue(duplicate.get().orElseThrow().isReplayed());
+        }
+        verify(caseService, times(1)).createCase(any(Case.class), anyLong());
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(2)));
+        when(caseService.createCase(any(Case.class), anyLong())).thenReturn(createdCase());
+        idempotencyService.createCase(KEY, request());
+
+        Case other = request();
+        other.setTitle("Another case");
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> idempotencyService.createCase(KEY, other));
+        assertEquals(IDEMPOTENCY_KEY_REUSED, exception.getMessage());
+    }
+
+    @Test
+    void testKeyCompletedByAnotherInstanceIsReplayed() throws Exception {
+        String requestHash = claimTakenByAnotherInstance();
+        Case stored = createdCase();
+        when(idempotencyRepository.findByKey(KEY)).thenReturn(Optional.of(new IdempotencyRecord(KEY, requestHash,
+                1001L, objectMapper.writeValueAsString(stored), LocalDateTime.now())));
+
+        IdempotentCase replayed = idempotencyService.createCase(KEY, request()).orElseThrow();
+
+        assertTrue(replayed.isReplayed());
+        assertEquals(1001L, replayed.getCaseDetails().getCaseId());
+        assertEquals(0L, replayed.getCaseDetails().getVersion());
+        verify(caseService, never()).createCase(any(Case.class), anyLong());
+    }
+
+    @Test
+    void testKeyRunningOnAnotherInstanceIsNotCreated() throws Exception {
+        String requestHash = claimTakenByAnotherInstance();
+        when(idempotencyRepository.findByKey(KEY)).thenReturn(Optional.of(
+                new IdempotencyRecord(KEY, requestHash, null, null, LocalDateTime.now())));
+
+        assertTrue(idempotencyService.createCase(KEY, request()).isEmpty());
+        assertTrue(idempotencyService.createCase(KEY, request()).isEmpty());
+
+        verify(idempotencyRepository, times(2)).findByKey(KEY);
+        verify(caseService, never()).createCase(any(Case.class), anyLong());
+    }
+
+    @Test
+    void testFailedCreateReleasesTheKey() {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> Optional.of(invocation.getArgument(2)));
+        when(caseService.createCase(any(Case.class), anyLong()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(createdCase());
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.createCase(KEY, request()));
+        verify(idempotencyRepository, times(1)).release(KEY);
+
+        assertFalse(idempotencyService.createCase(KEY, request()).orElseThrow().isReplayed());
+        verify(caseService, times(2)).createCase(any(Case.class), anyLong());
+    }
+
+    @Test
+    void testClaimTakenOverAfterTheCaseWasCreatedIsNotCreatedAgain() {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenReturn(Optional.of(1001L));
+        when(caseService.findCase(1001L)).thenReturn(createdCase());
+
+        IdempotentCase created = idempotencyService.createCase(KEY, request()).orElseThrow();
+
+        assertEquals(1001L, created.getCaseDetails().getCaseId());
+        verify(caseService, never()).createCase(any(Case.class), anyLong());
+        verify(idempotencyRepository, times(1)).complete(eq(KEY), eq(1001L), anyString());
+    }
+
+    @Test
+    void testClaimTakenOverBeforeTheCaseWasCreatedCreatesItUnderTheReservedId() {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any()))
+                .thenReturn(Optional.of(1001L));
+        when(caseService.findCase(1001L)).thenThrow(new NoSuchElementException());
+        when(caseService.createCase(any(Case.class), eq(1001L))).thenReturn(createdCase());
+
+        assertEquals(1001L, idempotencyService.createCase(KEY, request()).orElseThrow().getCaseDetails().getCaseId());
+    }
+
+    // returns the hash of request(), which the other instance stored with the key
+    private String claimTakenByAnotherInstance() throws Exception {
+        when(idempotencyRepository.claim(eq(KEY), anyString(), anyLong(), any(), any())).thenReturn(Optional.empty());
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request()));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static Case request() {
+        return new Case(null, "Sample", "Case description", "Pending", DUE_DATE_TIME);
+    }
+
+    private static Case createdCase() {
+        return new Case(1001L, "Sample", "Case description", "Pending", DUE_DATE_TIME, 0L);
+    }
+}
@@ -3,22 +3,47 @@ package com.main.services;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import com.main.coalescing.CaseLookupBatcher;
+import com.main.events.CaseChangedEvent;
+import com.main.exception.CaseArchivedException;
+import com.main.exception.InvalidRequestException;
+import com.main.models.ArchivedCase;
 import com.main.models.Case;
+import com.main.models.CasePage;
+import com.main.models.CaseQuery;
+import com.main.models.CaseSearchHit;
+import com.main.models.CaseSearchPage;
+import com.main.models.CaseState;
+import com.main.repository.ArchivedCaseRepository;
+import com.main.repository.CaseJdbcRepository;
 import com.main.repository.CaseRepository;
 import com.main.services.impl.CaseServiceImpl;
+import com.main.sharding.CaseIdGenerator;
+import com.main.sharding.CaseShards;
+import com.main.utils.CursorUtil;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
+import static com.main.constants.ErrorsConstant.CASE_ARCHIVED;
+import static com.main.constants.ErrorsConstant.CASE_VERSION_CONFLICT;
+import static com.main.constants.ErrorsConstant.INVALID_DIRECTION;
 import static com.main.constants.ErrorsConstant.NO_SUCH_ELEMENT_EXCEPTION;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,12 +59,25 @@ class CaseServiceImplTest {
     @Mock
     private CaseRepository caseRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CaseJdbcRepository caseJdbcRepository;
+
+    @Mock
+    private ArchivedCaseRepository archivedCaseRepository;
+
     private CaseServiceImpl caseService;
 
     @BeforeEach
     void setUp() {
-        caseService = new CaseServiceImpl(caseRepository);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        CaseLookupBatcher caseLookupBatcher = new CaseLookupBatcher(caseRepository, archivedCaseRepository,
+                CaseShards.single(), transactionTemplate);
+        caseService = new CaseServiceImpl(caseRepository, caseJdbcRepository,
+                archivedCaseRepository, eventPublisher, CaseShards.single(), CaseIdGenerator.forWorker(0),
+                caseLookupBatcher, transactionTemplate);
     }
 
     @Test
@@ -51,58 +89,148 @@ class CaseServiceImplTest {
         assertEquals(TITLE, created.getTitle());
         assertEquals(caseA, created);
         verify(caseRepository, times(1)).save(caseA);
+        verify(eventPublisher, times(1)).publishEvent(CaseChangedEvent.created(caseA));
     }
 
     @Test
     void testUpdateCaseStatusWhenIdFound() {
         Case caseA = createCase();
+        caseA.setStatus(STATUS_TO_BE_UPDATED);
+        when(caseRepository.findStateById(CASE_ID)).thenReturn(Optional.of(createState(0L)));
+        when(caseRepository.updateStatusWithVersion(eq(CASE_ID), eq(STATUS_TO_BE_UPDATED), eq(0L),
+                any(LocalDateTime.class))).thenReturn(1);
         when(caseRepository.findById(CASE_ID)).thenReturn(Optional.of(caseA));
-        when(caseRepository.save(any(Case.class))).thenReturn(caseA);
 
         Optional<Case> updated = caseService.updateCaseStatus(
                 CASE_ID, STATUS_TO_BE_UPDATED);
         assertTrue(updated.isPresent());
         assertEquals(STATUS_TO_BE_UPDATED, updated.get().getStatus());
 
-        verify(caseRepository, times(1)).findById(CASE_ID);
-        verify(caseRepository, times(1)).save(caseA);
+        verify(caseRepository, times(1)).updateStatusWithVersion(eq(CASE_ID), eq(STATUS_TO_BE_UPDATED),
+                eq(0L), any(LocalDateTime.class));
+        verify(caseRepository, never()).save(any(Case.class));
     }
 
     @Test
     void testUpdateCaseStatusWhenIdNotFound() {
-        Case caseA = createCase();
-        when(caseRepository.findById(CASE_ID_NOT_EXIST)).thenReturn(Optional.empty());
-
         Optional<Case> updated = caseService.updateCaseStatus(
                 CASE_ID_NOT_EXIST, STATUS_TO_BE_UPDATED);
         assertFalse(updated.isPresent());
 
-        verify(caseRepository, times(1))
-                .findById(CASE_ID_NOT_EXIST);
+        verify(caseRepository, never()).findById(CASE_ID_NOT_EXIST);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testChangeCaseStatusPublishesTheStatusItReplaced() {
+        when(caseRepository.findStateById(CASE_ID)).thenReturn(Optional.of(createState(3L)));
+        when(caseRepository.updateStatusWithVersion(eq(CASE_ID), eq(STATUS_TO_BE_UPDATED), eq(3L),
+                any(LocalDateTime.class))).thenReturn(1);
+
+        assertTrue(caseService.changeCaseStatus(CASE_ID, STATUS_TO_BE_UPDATED, 3L));
+
+        verify(caseRepository, never()).findStatesForUpdate(anyList());
+        verify(caseRepository, never()).existsById(CASE_ID);
+        ArgumentCaptor<CaseChangedEvent> event = ArgumentCaptor.forClass(CaseChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(STATUS, event.getValue().previous().getStatus());
+        assertNotNull(event.getValue().previous().getDueDateTime());
+        assertEquals(STATUS_TO_BE_UPDATED, event.getValue().current().getStatus());
+    }
+
+    @Test
+    void testChangeCaseStatusWhenChangedMeanwhileLocksTheRow() {
+        CaseState changed = createState(4L);
+        changed.setStatus("Closed");
+        when(caseRepository.findStateById(CASE_ID)).thenReturn(Optional.of(createState(3L)));
+        when(caseRepository.updateStatusWithVersion(eq(CASE_ID), eq(STATUS_TO_BE_UPDATED), eq(3L),
+                any(LocalDateTime.class))).thenReturn(0);
+        when(caseRepository.findStatesForUpdate(List.of(CASE_ID))).thenReturn(List.of(changed));
+        when(caseRepository.updateStatusWithVersion(eq(CASE_ID), eq(STATUS_TO_BE_UPDATED), eq(4L),
+                any(LocalDateTime.class))).thenReturn(1);
+
+        assertTrue(caseService.changeCaseStatus(CASE_ID, STATUS_TO_BE_UPDATED, null));
+
+        ArgumentCaptor<CaseChangedEvent> event = ArgumentCaptor.forClass(CaseChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals("Closed", event.getValue().previous().getStatus());
+    }
+
+    @Test
+    void testChangeCaseStatusWhenVersionIsStaleShouldThrowConflict() {
+        when(caseRepository.findStateById(CASE_ID)).thenReturn(Optional.of(createState(4L)));
+
+        OptimisticLockingFailureException exception = assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> caseService.changeCaseStatus(CASE_ID, STATUS_TO_BE_UPDATED, 3L));
+        assertEquals(CASE_VERSION_CONFLICT, exception.getMessage());
+        verify(caseRepository, never()).updateStatusWithVersion(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testChangeCaseStatusWhenChangedMeanwhileShouldThrowConflict() {
+        when(caseRepository.findStateById(CASE_ID)).thenReturn(Optional.of(createState(3L)));
+        when(caseRepository.existsById(CASE_ID)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> caseService.changeCaseStatus(CASE_ID, STATUS_TO_BE_UPDATED, 3L));
+        verify(caseRepository, never()).findStatesForUpdate(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testChangeCaseStatusWhenVersionGivenAndIdNotFound() {
+        assertFalse(caseService.changeCaseStatus(CASE_ID_NOT_EXIST, STATUS_TO_BE_UPDATED, 3L));
+    }
+
+    @Test
+    void testChangeCaseStatusWhenArchivedShouldThrowCaseArchived() {
+        when(archivedCaseRepository.existsById(CASE_ID)).thenReturn(true);
+
+        CaseArchivedException exception = assertThrows(CaseArchivedException.class,
+                () -> caseService.changeCaseStatus(CASE_ID, STATUS_TO_BE_UPDATED, null));
+        assertEquals(CASE_ARCHIVED, exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void testFindCaseWhenFoundById() {
         Case caseA = createCase();
-        when(caseRepository.findById(CASE_ID)).thenReturn(Optional.of(caseA));
+        when(caseRepository.findAllById(List.of(CASE_ID))).thenReturn(List.of(caseA));
 
         Case result = caseService.findCase(CASE_ID);
         assertNotNull(result);
         assertEquals(STATUS, result.getStatus());
 
-        verify(caseRepository, times(1)).findById(CASE_ID);
+        verify(caseRepository, times(1)).findAllById(List.of(CASE_ID));
     }
 
     @Test
     public void testFindCaseWhenNotFoundByIdShouldThrowNoSuchElement() {
-        when(caseRepository.findById(CASE_ID_NOT_EXIST)).thenReturn(Optional.empty());
+        when(caseRepository.findAllById(List.of(CASE_ID_NOT_EXIST))).thenReturn(List.of());
 
         NoSuchElementException exception = assertThrows(NoSuchElementException.class, () -> {
             caseService.findCase(CASE_ID_NOT_EXIST);
         });
         assertEquals(NO_SUCH_ELEMENT_EXCEPTION, exception.getMessage());
 
-        verify(caseRepository, times(1)).findById(CASE_ID_NOT_EXIST);
+        verify(caseRepository, times(1)).findAllById(List.of(CASE_ID_NOT_EXIST));
+        verify(archivedCaseRepository, times(1)).findAllById(Set.of(CASE_ID_NOT_EXIST));
+    }
+
+    @Test
+    void testFindCaseFallsThroughToArchive() {
+        when(caseRepository.findAllById(List.of(CASE_ID))).thenReturn(List.of());
+        when(archivedCaseRepository.findAllById(Set.of(CASE_ID))).thenReturn(List.of(new ArchivedCase(CASE_ID,
+                TITLE, DESCRIPTION, STATUS_TO_BE_UPDATED, LocalDateTime.now().minusYears(1), 4L,
+                null, LocalDateTime.now())));
+
+        Case result = caseService.findCase(CASE_ID);
+
+        assertEquals(CASE_ID, result.getCaseId());
+        assertEquals(STATUS_TO_BE_UPDATED, result.getStatus());
+        assertEquals(Long.valueOf(4L), result.getVersion());
     }
 
     @Test
@@ -123,11 +251,133 @@ class CaseServiceImplTest {
         verify(caseRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testFindCasesWhenMorePagesExist() {
+        List<Case> caseList = Arrays.asList(
+                new Case(1001L, "Sample 1", "desc 1",
+                        "Pending", LocalDateTime.now().plusDays(1)),
+                new Case(1002L, "Sample 2", "desc 2",
+                        "Completed", LocalDateTime.now().plusDays(2))
+        );
+        when(caseRepository.findByCaseIdGreaterThanOrderByCaseIdAsc(0L, Limit.of(2)))
+                .thenReturn(caseList);
+
+        CasePage result = caseService.findCases(null, 1);
+        assertEquals(1, result.getContent().size());
+        assertEquals(Long.valueOf(1001L), CursorUtil.decodeLong(result.getNextCursor()));
+    }
+
+    @Test
+    public void testFindCasesWhenLastPage() {
+        List<Case> caseList = List.of(new Case(1002L, "Sample 2", "desc 2",
+                "Completed", LocalDateTime.now().plusDays(2)));
+        when(caseRepository.findByCaseIdGreaterThanOrderByCaseIdAsc(1001L, Limit.of(3)))
+                .thenReturn(caseList);
+
+        CasePage result = caseService.findCases(CursorUtil.encode(1001L), 2);
+        assertEquals(caseList, result.getContent());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void testFindCasesWhenCursorInvalidShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class,
+                () -> caseService.findCases("not-a-cursor", 10));
+    }
+
+    @Test
+    public void testFilterCasesReturnsCursorOnDueDateTimeAndId() {
+        LocalDateTime due = LocalDateTime.of(2030, 1, 1, 10, 0);
+        List<Case> caseList = Arrays.asList(
+                new Case(1001L, "Sample 1", "desc 1", STATUS, due),
+                new Case(1002L, "Sample 2", "desc 2", STATUS, due.plusDays(1)));
+        when(caseRepository.findBy(any(Specification.class), any())).thenReturn(caseList);
+
+        CasePage result = caseService.filterCases(new CaseQuery(STATUS, null, null,
+                "Sam", "dueDateTime", "asc"), null, 1);
+        assertEquals(1, result.getContent().size());
+        assertArrayEquals(new String[]{due.toString(), "1001"},
+                CursorUtil.decode(result.getNextCursor(), 2));
+    }
+
+    @Test
+    public void testFilterCasesWhenSortUnknownShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class, () -> caseService.filterCases(
+                new CaseQuery(null, null, null, null, "title", "asc"), null, 10));
+    }
+
+    @Test
+    public void testFilterCasesWhenDirectionUnknownShouldThrowInvalidRequest() {
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> caseService.filterCases(
+                new CaseQuery(null, null, null, null, "caseId", "sideways"), null, 10));
+        assertEquals(INVALID_DIRECTION, exception.getMessage());
+        assertThrows(InvalidRequestException.class, () -> caseService.filterCases(
+                new CaseQuery(null, null, null, null, "caseId", ""), null, 10));
+        verify(caseRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    public void testSearchCasesPagesByOffset() {
+        List<CaseSearchHit> hits = Arrays.asList(
+                new CaseSearchHit(createCase(), 2.5),
+                new CaseSearchHit(createCase(), 1.5));
+        when(caseJdbcRepository.search("sample", 10, 2)).thenReturn(hits);
+
+        CaseSearchPage result = caseService.searchCases("sample", CursorUtil.encode(10), 1);
+        assertEquals(1, result.getHits().size());
+        assertEquals(Long.valueOf(11L), CursorUtil.decodeLong(result.getNextCursor()));
+    }
+
+    @Test
+    public void testSearchCasesWhenOffsetOutOfRangeShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class,
+                () -> caseService.searchCases("sample", CursorUtil.encode(-1), 10));
+        assertThrows(InvalidRequestException.class,
+                () -> caseService.searchCases("sample", CursorUtil.encode(Integer.MAX_VALUE + 1L), 10));
+        verifyNoInteractions(caseJdbcRepository);
+    }
+
+    @Test
+    public void testSearchCasesWhenTextBlankShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class,
+                () -> caseService.searchCases(" ", null, 10));
+    }
+
     @Test
     public void testDeleteCase() {
-        doNothing().when(caseRepository).deleteById(CASE_ID);
+        Case caseA = createCase();
+        caseA.setVersion(2L);
+        when(caseRepository.findById(CASE_ID)).thenReturn(Optional.of(caseA));
+        when(caseRepository.deleteByCaseIdAndVersion(CASE_ID, 2L)).thenReturn(1);
         caseService.deleteCase(CASE_ID);
-        verify(caseRepository, times(1)).deleteById(CASE_ID);
+        verify(caseRepository, never()).findAllForUpdate(anyList());
+        verify(archivedCaseRepository, never()).deleteByCaseId(CASE_ID);
+        verify(eventPublisher, times(1)).publishEvent(CaseChangedEvent.deleted(caseA));
+    }
+
+    @Test
+    public void testDeleteCaseWhenChangedMeanwhileLocksTheRow() {
+        Case caseA = createCase();
+        caseA.setVersion(2L);
+        Case changed = createCase();
+        changed.setVersion(3L);
+        when(caseRepository.findById(CASE_ID)).thenReturn(Optional.of(caseA));
+        when(caseRepository.findAllForUpdate(List.of(CASE_ID))).thenReturn(List.of(changed));
+        caseService.deleteCase(CASE_ID);
+        verify(caseRepository, times(1)).deleteByCaseId(CASE_ID);
+        verify(eventPublisher, times(1)).publishEvent(CaseChangedEvent.deleted(changed));
+    }
+
+    @Test
+    public void testDeleteArchivedCase() {
+        when(archivedCaseRepository.deleteByCaseId(CASE_ID)).thenReturn(1);
+        caseService.deleteCase(CASE_ID);
+        verify(caseRepository, never()).deleteByCaseId(CASE_ID);
+        verify(eventPublisher, times(1)).publishEvent(CaseChangedEvent.deleted(CASE_ID));
+    }
+
+    private CaseState createState(Long version) {
+        return new CaseState(CASE_ID, STATUS, LocalDateTime.now().plusDays(7), version);
     }
 
     private Case createCase() {
@@ -0,0 +1,94 @@
+package com.main.services;
+
+import com.main.events.CaseChangedEvent;
+import com.main.models.Case;
+import com.main.models.CaseCount;
+import com.main.models.CaseStatistics;
+import com.main.repository.CaseRepository;
+import com.main.services.impl.CaseStatisticsServiceImpl;
+import com.main.sharding.CaseShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaseStatisticsServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private CaseRepository caseRepository;
+
+    private CaseStatisticsServiceImpl statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new CaseStatisticsServiceImpl(caseRepository, CaseShards.single());
+        ReflectionTestUtils.setField(statisticsService, "closedStatuses", Set.of("Closed"));
+        ReflectionTestUtils.setField(statisticsService, "reconcileInterval", Duration.ofMinutes(5));
+        when(caseRepository.countByStatusAndDueDate()).thenReturn(List.of(
+                new CaseCount("Pending", TODAY.minusDays(3), 2L),
+                new CaseCount("Pending", TODAY, 1L),
+                new CaseCount("Closed", TODAY.minusDays(3), 4L)));
+    }
+
+    @Test
+    void testStatisticsStartFromTheDatabase() {
+        CaseStatistics statistics = statisticsService.getStatistics();
+
+        assertEquals(7, statistics.getTotal());
+        assertEquals(Map.of("Pending", 3L, "Closed", 4L), statistics.getByStatus());
+        assertEquals(2, statistics.getOverdue());
+        assertEquals(1, statistics.getDueToday());
+        assertEquals(1, statistics.getDueThisWeek());
+    }
+
+    @Test
+    void testChangesAdjustTheCountsWithoutReadingTheDatabase() {
+        statisticsService.reconcile();
+        Case overdue = createCase(1L, "Pending", TODAY.minusDays(3));
+
+        statisticsService.onCaseChanged(CaseChangedEvent.created(createCase(2L, "Pending", TODAY)));
+        statisticsService.onCaseChanged(CaseChangedEvent.statusChanged(overdue, "Closed"));
+        statisticsService.reconcileWhenDue();
+        CaseStatistics statistics = statisticsService.getStatistics();
+
+        assertEquals(8, statistics.getTotal());
+        assertEquals(Map.of("Pending", 3L, "Closed", 5L), statistics.getByStatus());
+        assertEquals(1, statistics.getOverdue());
+        assertEquals(2, statistics.getDueToday());
+        verify(caseRepository, times(1)).countByStatusAndDueDate();
+    }
+
+    @Test
+    void testDeletesAdjustTheCountsWithoutReadingTheDatabase() {
+        statisticsService.reconcile();
+
+        statisticsService.onCaseChanged(CaseChangedEvent.deleted(createCase(1L, "Pending", TODAY.minusDays(3))));
+        statisticsService.onCaseChanged(CaseChangedEvent.deleted(2L));
+        statisticsService.reconcileWhenDue();
+        CaseStatistics statistics = statisticsService.getStatistics();
+
+        assertEquals(6, statistics.getTotal());
+        assertEquals(Map.of("Pending", 2L, "Closed", 4L), statistics.getByStatus());
+        assertEquals(1, statistics.getOverdue());
+        verify(caseRepository, times(1)).countByStatusAndDueDate();
+    }
+
+    private static Case createCase(Long caseId, String status, LocalDate dueDate) {
+        return new Case(caseId, "Sample", "Case description", status, dueDate.atTime(10, 0), 0L);
+    }
+}
@@ -0,0 +1,64 @@
+package com.main.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaseIdGeneratorTest {
+
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    @Test
+    void testIdsAreIncreasingAndUniqueBeyondTheSequenceOfAMillisecond() {
+        CaseIdGenerator generator = CaseIdGenerator.forWorker(7);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void testIdCarriesWorkerAndTimestampWithinJavaScriptSafeRange() {
+        long id = CaseIdGenerator.forWorker(31).nextId();
+
+        assertEquals(31, CaseIdGenerator.workerOf(id));
+        assertTrue(Duration.between(CaseIdGenerator.timestampOf(id), Instant.now()).abs().toSeconds() < 5);
+        assertTrue(id <= MAX_SAFE_INTEGER);
+    }
+
+    @Test
+    void testFirstIdAtPrecedesEveryIdIssuedFromThen() {
+        Instant before = Instant.now();
+        CaseIdGenerator generator = CaseIdGenerator.forWorker(5);
+        long id = generator.nextId();
+
+        assertTrue(CaseIdGenerator.firstIdAt(before) <= id);
+        assertTrue(CaseIdGenerator.firstIdAt(before.plusSeconds(1)) > id);
+        assertEquals(5, generator.workerId());
+    }
+
+    @Test
+    void testWorkerSharesOneGeneratorAndRejectsOutOfRangeIds() {
+        assertSame(CaseIdGenerator.forWorker(3), CaseIdGenerator.forWorker(3));
+        assertThrows(IllegalArgumentException.class, () -> CaseIdGenerator.forWorker(32));
+        assertThrows(IllegalArgumentException.class, () -> CaseIdGenerator.forWorker(-1));
+    }
+
+    @Test
+    void testConfiguredWorkerMustBeSet() {
+        assertThrows(IllegalStateException.class, () -> CaseIdGenerator.forConfiguredWorker(null));
+        assertSame(CaseIdGenerator.forWorker(5), CaseIdGenerator.forConfiguredWorker(5));
+    }
+}
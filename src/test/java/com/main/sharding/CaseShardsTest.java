@@ -0,0 +1,79 @@
+package com.main.sharding;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaseShardsTest {
+
+    @Test
+    void testConsecutiveIdsSpreadOverAllShards() {
+        CaseShards shards = new CaseShards(3, 1024, Map.of());
+        CaseIdGenerator generator = CaseIdGenerator.forWorker(0);
+        int[] counts = new int[3];
+        for (int i = 0; i < 3000; i++) {
+            counts[shards.shardOf(generator.nextId())]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800, "uneven spread " + List.of(counts[0], counts[1], counts[2]));
+        }
+    }
+
+    @Test
+    void testMovedBucketRoutesToItsNewShard() {
+        long caseId = 123_456_789L;
+        int bucket = new CaseShards(2, 16, Map.of()).bucketOf(caseId);
+        int shard = new CaseShards(2, 16, Map.of()).shardOf(caseId);
+
+        CaseShards moved = new CaseShards(2, 16, Map.of(bucket, 1 - shard));
+
+        assertEquals(1 - shard, moved.shardOf(caseId));
+        assertThrows(IllegalArgumentException.class, () -> new CaseShards(2, 16, Map.of(bucket, 2)));
+    }
+
+    @Test
+    void testScatterRunsEveryShardBoundToItself() {
+        CaseShards shards = new CaseShards(4, 64, Map.of());
+
+        assertEquals(List.of(0, 1, 2, 3), shards.scatter(shard -> CaseShards.currentShard()));
+        assertNull(CaseShards.currentShard());
+    }
+
+    @Test
+    void testBindNeedsTransactionAndStaysOnOneShard() {
+        CaseShards shards = new CaseShards(2, 16, Map.of());
+        long onShardZero = IntStream.range(0, 100).filter(id -> shards.shardOf(id) == 0).findFirst().orElseThrow();
+        long onShardOne = IntStream.range(0, 100).filter(id -> shards.shardOf(id) == 1).findFirst().orElseThrow();
+
+        assertThrows(IllegalStateException.class, () -> shards.bind(onShardZero));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shards.bind(onShardZero);
+            assertEquals(0, CaseShards.currentShard());
+            assertThrows(IllegalStateException.class, () -> shards.bind(onShardOne));
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(0));
+            assertNull(CaseShards.currentShard());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testMergeSortedKeepsOrderAcrossShardsUpToLimit() {
+        List<List<Integer>> perShard = List.of(List.of(1, 4, 9), List.of(2, 3, 10), List.of(), List.of(5));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), CaseShards.mergeSorted(perShard, Comparator.naturalOrder(), 5));
+        assertEquals(List.of(10, 9, 5), CaseShards.mergeSorted(
+                List.of(List.of(9, 4, 1), List.of(10, 3, 2), List.of(5)), Comparator.reverseOrder(), 3));
+    }
+}